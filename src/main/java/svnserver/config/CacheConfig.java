@@ -20,4 +20,13 @@ import java.io.File;
 public interface CacheConfig {
   @NotNull
   DB createCache(@NotNull File basePath);
+
+  /**
+   * Create separate cache database. Used for caches with own size limit.
+   *
+   * @param basePath Base path.
+   * @param name     Cache name.
+   */
+  @NotNull
+  DB createCache(@NotNull File basePath, @NotNull String name);
 }
@@ -9,6 +9,7 @@ package svnserver.config;
 
 import org.jetbrains.annotations.NotNull;
 import svnserver.config.serializer.ConfigType;
+import svnserver.server.ConnectionEngine;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -43,7 +44,22 @@ public final class Config {
   @NotNull
   private List<SharedConfig> shared = new ArrayList<>();
 
+  @NotNull
+  private ConnectionEngine connectionEngine = ConnectionEngine.THREAD;
+
   private int port = 3690;
+  private int acceptBacklog = 0;
+  private int maxConnections = 0;
+  private int maxConcurrentCommands = 0;
+  private int deltaThreads = 0;
+  private int deltaReadahead = 16;
+  private long deltaReadaheadMemory = 16 * 1024 * 1024;
+  private long deltaCacheMemory = 64 * 1024 * 1024;
+  private long deltaCacheDisk = 1024 * 1024 * 1024;
+  private long treeCacheMemory = 32 * 1024 * 1024;
+  private long revisionWatchInterval = 1000;
+  private int warmupThreads = 0;
+  private long warmupTimeout = TimeUnit.SECONDS.toMillis(10);
 
   private boolean reuseAddress = false;
   private boolean compressionEnabled = true;
@@ -90,6 +106,117 @@ public final class Config {
     this.userDB = userDB;
   }
 
+  /**
+   * Pending connection queue length for listen socket (0 - system default).
+   */
+  public int getAcceptBacklog() {
+    return acceptBacklog;
+  }
+
+  /**
+   * Maximum simultaneously opened client connections (0 - unlimited).
+   */
+  public int getMaxConnections() {
+    return maxConnections;
+  }
+
+  public void setMaxConnections(int maxConnections) {
+    this.maxConnections = maxConnections;
+  }
+
+  /**
+   * Maximum simultaneously executed commands for {@link ConnectionEngine#SELECTOR} engine (0 - four per CPU core).
+   */
+  public int getMaxConcurrentCommands() {
+    return maxConcurrentCommands;
+  }
+
+  public void setMaxConcurrentCommands(int maxConcurrentCommands) {
+    this.maxConcurrentCommands = maxConcurrentCommands;
+  }
+
+  /**
+   * Thread count of shared pool for file delta computation (0 - one per CPU core).
+   */
+  public int getDeltaThreads() {
+    return deltaThreads;
+  }
+
+  /**
+   * Maximum count of files with delta computed ahead of editor drive per session (0 - compute deltas in session thread).
+   */
+  public int getDeltaReadahead() {
+    return deltaReadahead;
+  }
+
+  public void setDeltaReadahead(int deltaReadahead) {
+    this.deltaReadahead = deltaReadahead;
+  }
+
+  /**
+   * Maximum estimated size of deltas computed ahead of editor drive per session in bytes.
+   */
+  public long getDeltaReadaheadMemory() {
+    return deltaReadaheadMemory;
+  }
+
+  /**
+   * In-memory svndiff cache size in bytes (0 - disabled).
+   */
+  public long getDeltaCacheMemory() {
+    return deltaCacheMemory;
+  }
+
+  /**
+   * Svndiff cache size in separate cache database in bytes (0 - disabled).
+   */
+  public long getDeltaCacheDisk() {
+    return deltaCacheDisk;
+  }
+
+  /**
+   * In-memory cache size for parsed git trees shared by all repositories in bytes (0 - disabled).
+   */
+  public long getTreeCacheMemory() {
+    return treeCacheMemory;
+  }
+
+  public long getRevisionWatchInterval() {
+    return revisionWatchInterval;
+  }
+
+  public void setRevisionWatchInterval(long revisionWatchInterval) {
+    this.revisionWatchInterval = revisionWatchInterval;
+  }
+
+  /**
+   * Thread count for repository initialization on server start (0 - one per CPU core).
+   */
+  public int getWarmupThreads() {
+    return warmupThreads;
+  }
+
+  /**
+   * Maximum time in milliseconds, which new connection waits for repository initialization.
+   * Connections served by selector engine don't wait: they are rejected until repository is initialized.
+   */
+  public long getWarmupTimeout() {
+    return warmupTimeout;
+  }
+
+  public void setWarmupTimeout(long warmupTimeout) {
+    this.warmupTimeout = warmupTimeout;
+  }
+
+  @NotNull
+  public ConnectionEngine getConnectionEngine() {
+    return connectionEngine;
+  }
+
+  public void setConnectionEngine(@NotNull ConnectionEngine connectionEngine) {
+    this.connectionEngine = connectionEngine;
+  }
+
   public boolean getReuseAddress() {
     return reuseAddress;
   }
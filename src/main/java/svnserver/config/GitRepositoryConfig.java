@@ -49,6 +49,8 @@ public final class GitRepositoryConfig implements RepositoryConfig {
   private List<LocalConfig> extensions = new ArrayList<>();
 
   private boolean renameDetection = true;
+  private int metadataThreads = 0;
+  private int importThreads = 0;
 
   @NotNull
   public GitPusherConfig getPusher() {
@@ -59,6 +61,14 @@ public final class GitRepositoryConfig implements RepositoryConfig {
     return renameDetection;
   }
 
+  public int getMetadataThreads() {
+    return metadataThreads;
+  }
+
+  public int getImportThreads() {
+    return importThreads;
+  }
+
   @NotNull
   public Repository createRepository(@NotNull File fullPath) throws IOException {
     if (!fullPath.exists()) {
@@ -78,7 +88,7 @@ public final class GitRepositoryConfig implements RepositoryConfig {
   @NotNull
   public VcsRepository create(@NotNull LocalContext context, @NotNull File fullPath) throws IOException, SVNException {
     context.add(GitLocation.class, new GitLocation(fullPath));
-    GitRepository repository = new GitRepository(context, createRepository(fullPath), getPusher().create(context), branch, isRenameDetection(), new PersistentLockFactory(context));
+    GitRepository repository = new GitRepository(context, createRepository(fullPath), getPusher().create(context), branch, isRenameDetection(), getMetadataThreads(), getImportThreads(), new PersistentLockFactory(context));
     for (LocalConfig extension : extensions) {
       extension.create(context);
     }
@@ -26,4 +26,10 @@ public class MemoryCacheConfig implements CacheConfig {
   public DB createCache(@NotNull File basePath) {
     return DBMaker.newMemoryDB().make();
   }
+
+  @NotNull
+  @Override
+  public DB createCache(@NotNull File basePath, @NotNull String name) {
+    return DBMaker.newMemoryDB().make();
+  }
 }
@@ -28,7 +28,17 @@ public class PersistentCacheConfig implements CacheConfig {
   @NotNull
   @Override
   public DB createCache(@NotNull File basePath) {
-    final File cacheBase = ConfigHelper.joinPath(basePath, path);
+    return openCache(ConfigHelper.joinPath(basePath, path));
+  }
+
+  @NotNull
+  @Override
+  public DB createCache(@NotNull File basePath, @NotNull String name) {
+    return openCache(ConfigHelper.joinPath(basePath, path + "." + name));
+  }
+
+  @NotNull
+  private static DB openCache(@NotNull File cacheBase) {
     //noinspection ResultOfMethodCallIgnored
     cacheBase.getParentFile().mkdirs();
     return DBMaker.newFileDB(cacheBase)
@@ -0,0 +1,52 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.config;
+
+import org.eclipse.jgit.storage.file.WindowCacheConfig;
+import org.jetbrains.annotations.NotNull;
+import svnserver.config.serializer.ConfigType;
+import svnserver.context.SharedContext;
+import svnserver.repository.git.GitReaderPool;
+
+import java.io.IOException;
+
+/**
+ * Git object access configuration.
+ * <p>
+ * JGit window cache is process-wide, so it is configured once for all repositories.
+ * Default values are JGit defaults.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+@SuppressWarnings("FieldCanBeLocal")
+@ConfigType("gitCache")
+public class SharedGitCacheConfig implements SharedConfig {
+  private static final int KB = 1024;
+  private static final int MB = 1024 * KB;
+
+  private int packedGitOpenFiles = 128;
+  private long packedGitLimit = 10 * MB;
+  private int packedGitWindowSize = 8 * KB;
+  private boolean packedGitMMAP = false;
+  private int deltaBaseCacheLimit = 10 * MB;
+  private int streamFileThreshold = 50 * MB;
+  private int readerPoolSize = 0;
+
+  @Override
+  public void create(@NotNull SharedContext context) throws IOException {
+    final WindowCacheConfig windowCacheConfig = new WindowCacheConfig();
+    windowCacheConfig.setPackedGitOpenFiles(packedGitOpenFiles);
+    windowCacheConfig.setPackedGitLimit(packedGitLimit);
+    windowCacheConfig.setPackedGitWindowSize(packedGitWindowSize);
+    windowCacheConfig.setPackedGitMMAP(packedGitMMAP);
+    windowCacheConfig.setDeltaBaseCacheLimit(deltaBaseCacheLimit);
+    windowCacheConfig.setStreamFileThreshold(streamFileThreshold);
+    windowCacheConfig.install();
+    context.add(GitReaderPool.class, new GitReaderPool(readerPoolSize));
+  }
+}
@@ -17,6 +17,8 @@ import svnserver.config.ConfigHelper;
 import svnserver.context.LocalContext;
 import svnserver.context.SharedContext;
 import svnserver.repository.RepositoryInfo;
+import svnserver.repository.RepositoryWarmer;
+import svnserver.repository.RevisionWatcher;
 import svnserver.repository.VcsAccess;
 import svnserver.repository.VcsRepository;
 import svnserver.repository.VcsRepositoryMapping;
@@ -55,7 +57,7 @@ public class GitLabMapping implements VcsRepositoryMapping {
   @Override
   public RepositoryInfo getRepository(@NotNull SVNURL url) throws SVNException {
     final Map.Entry<String, GitLabProject> entry = RepositoryListMapping.getMapped(mapping, url.getPath());
-    if (entry != null && entry.getValue().isReady()) {
+    if (entry != null) {
       return new RepositoryInfo(
           SVNURL.create(url.getProtocol(), url.getUserInfo(), url.getHost(), url.getPort() == SVNURL.getDefaultPortNumber(url.getProtocol()) ? -1 : url.getPort(), entry.getKey(), true),
           entry.getValue().getRepository()
@@ -65,9 +67,9 @@ public class GitLabMapping implements VcsRepositoryMapping {
   }
 
   @Override
-  public void initRevisions() throws IOException, SVNException {
-    for (Map.Entry<String, GitLabProject> entry : mapping.entrySet()) {
-      entry.getValue().initRevisions();
+  public void initRevisions(@NotNull RepositoryWarmer warmer) {
+    for (GitLabProject project : mapping.values()) {
+      project.initRevisions(warmer);
     }
   }
 
@@ -90,6 +92,21 @@ public class GitLabMapping implements VcsRepositoryMapping {
     return null;
   }
 
+  /**
+   * Check project repository for new revisions in background.
+   */
+  public void refreshRepository(int projectId) {
+    final RevisionWatcher watcher = context.get(RevisionWatcher.class);
+    if (watcher == null) {
+      return;
+    }
+    for (GitLabProject project : mapping.values()) {
+      if (project.getProjectId() == projectId) {
+        watcher.refresh(project.getRepository());
+      }
+    }
+  }
+
   public void removeRepository(int projectId, @NotNull String projectName) {
     final String projectKey = StringHelper.normalizeDir(projectName);
     final GitLabProject project = mapping.get(projectKey);
@@ -21,6 +21,7 @@ import svnserver.config.serializer.ConfigType;
 import svnserver.context.SharedContext;
 import svnserver.ext.gitlab.config.GitLabContext;
 import svnserver.ext.web.server.WebServer;
+import svnserver.repository.RepositoryWarmer;
 import svnserver.repository.VcsRepositoryMapping;
 
 import javax.servlet.ServletException;
@@ -123,9 +124,17 @@ public class GitLabMappingConfig implements RepositoryMappingConfig {
             final GitlabAPI api = mapping.getContext().sure(GitLabContext.class).connect();
             final GitLabProject project = mapping.addRepository(api.getProject(event.getProjectId()));
             if (project != null) {
-              project.initRevisions();
+              project.initRevisions(mapping.getContext().sure(RepositoryWarmer.class));
             }
             return;
+          case "push":
+          case "repository_update":
+            if (event.getProjectId() == null) {
+              resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Can't parse event data");
+              return;
+            }
+            mapping.refreshRepository(event.getProjectId());
+            return;
           case "project_destroy":
             if (event.getProjectId() == null || event.getPathWithNamespace() == null) {
               resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Can't parse event data");
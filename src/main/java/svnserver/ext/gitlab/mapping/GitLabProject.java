@@ -10,12 +10,10 @@ package svnserver.ext.gitlab.mapping;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.tmatesoft.svn.core.SVNException;
 import svnserver.context.LocalContext;
+import svnserver.repository.RepositoryWarmer;
 import svnserver.repository.VcsRepository;
 
-import java.io.IOException;
-
 /**
  * GitLab project information.
  *
@@ -30,20 +28,14 @@ public class GitLabProject implements AutoCloseable {
   private final LocalContext context;
   private final int projectId;
 
-  private volatile boolean ready = false;
-
   public GitLabProject(@NotNull LocalContext context, @NotNull VcsRepository repository, int projectId) {
     this.context = context;
     this.repository = repository;
     this.projectId = projectId;
   }
 
-  public void initRevisions() throws IOException, SVNException {
-    if (!ready) {
-      log.info("Repository initialize: {}", context.getName());
-      repository.updateRevisions();
-      ready = true;
-    }
+  public void initRevisions(@NotNull RepositoryWarmer warmer) {
+    warmer.submit(context.getName(), repository);
   }
 
   @NotNull
@@ -60,10 +52,6 @@ public class GitLabProject implements AutoCloseable {
     return repository;
   }
 
-  public boolean isReady() {
-    return ready;
-  }
-
   @Override
   public void close() {
     try {
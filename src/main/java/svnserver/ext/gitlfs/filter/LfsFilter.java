@@ -89,7 +89,7 @@ public class LfsFilter implements GitFilter {
         }
       }
     }
-    return GitFilterHelper.getMd5(this, cacheDb, objectId, false);
+    return GitFilterHelper.getMd5(this, cacheDb, objectId);
   }
 
   @Override
@@ -0,0 +1,25 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.parser;
+
+import org.jetbrains.annotations.NotNull;
+import org.tmatesoft.svn.core.SVNException;
+
+import java.io.IOException;
+
+/**
+ * Consumer for binary string data.
+ * <p>
+ * Passed array is owned by caller and valid only during method call.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+@FunctionalInterface
+public interface BinaryConsumer {
+  void accept(@NotNull byte[] data, int offset, int length) throws IOException, SVNException;
+}
@@ -12,16 +12,22 @@ import org.jetbrains.annotations.Nullable;
 import svnserver.parser.token.*;
 
 import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Parameter;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Parse data from class.
+ * <p>
+ * Parser for every class is built on first usage and cached.
  *
  * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
  */
@@ -39,7 +45,7 @@ public final class MessageParser {
   private static final Map<Class<?>, Parser> parsers;
 
   static {
-    parsers = new HashMap<>();
+    parsers = new ConcurrentHashMap<>();
     parsers.put(String.class, MessageParser::parseString);
     parsers.put(byte[].class, MessageParser::parseBinary);
     parsers.put(int.class, MessageParser::parseInt);
@@ -49,56 +55,104 @@ public final class MessageParser {
 
   @NotNull
   public static <T> T parse(@NotNull Class<T> type, @Nullable SvnServerParser tokenParser) throws IOException {
-    Parser typeParser = parsers.get(type);
-    if (typeParser != null) {
-      //noinspection unchecked
-      return (T) typeParser.parse(tokenParser);
-    }
-    return parseObject(type, tokenParser);
+    //noinspection unchecked
+    return (T) getParser(type).parse(tokenParser);
   }
 
-  @SuppressWarnings("unchecked")
   @NotNull
-  private static <T> T parseObject(Class<T> type, @Nullable SvnServerParser tokenParser) throws IOException {
+  private static Parser getParser(@NotNull Class<?> type) {
+    final Parser parser = parsers.get(type);
+    if (parser != null) {
+      return parser;
+    }
+    // Parser creation is idempotent, so concurrent creation is harmless.
+    final Parser created = type.isArray() ? new ArrayParser(type.getComponentType()) : new ObjectParser(type);
+    final Parser prev = parsers.putIfAbsent(type, created);
+    return prev != null ? prev : created;
+  }
+
+  @Nullable
+  private static SvnServerParser beginList(@Nullable SvnServerParser tokenParser) throws IOException {
     if (tokenParser != null && tokenParser.readItem(ListBeginToken.class) == null)
-      tokenParser = null;
+      return null;
+    return tokenParser;
+  }
+
+  private static final class ArrayParser implements Parser {
+    @NotNull
+    private final Class<?> componentType;
+    @NotNull
+    private final Parser componentParser;
 
-    final int depth = getDepth(tokenParser);
+    private ArrayParser(@NotNull Class<?> componentType) {
+      this.componentType = componentType;
+      this.componentParser = getParser(componentType);
+    }
 
-    if (type.isArray()) {
+    @NotNull
+    @Override
+    public Object parse(@Nullable SvnServerParser tokenParser) throws IOException {
+      tokenParser = beginList(tokenParser);
+      final int depth = getDepth(tokenParser);
       final List<Object> result = new ArrayList<>();
-
       if (tokenParser != null) {
         while (true) {
-          final Object element = parse(type.getComponentType(), tokenParser);
+          final Object element = componentParser.parse(tokenParser);
           if (getDepth(tokenParser) < depth)
             break;
 
           result.add(element);
         }
       }
-
-      return (T) result.toArray((Object[]) Array.newInstance(type.getComponentType(), result.size()));
+      return result.toArray((Object[]) Array.newInstance(componentType, result.size()));
     }
+  }
 
-    final Constructor<?>[] ctors = type.getDeclaredConstructors();
-    if (ctors.length != 1) {
-      throw new IllegalStateException("Can't find parser ctor for object: " + type.getName());
-    }
-    final Constructor<?> ctor = ctors[0];
-    final Parameter[] ctorParams = ctor.getParameters();
-    Object[] params = new Object[ctorParams.length];
-    for (int i = 0; i < params.length; ++i) {
-      params[i] = parse(ctorParams[i].getType(), getDepth(tokenParser) == depth ? tokenParser : null);
-    }
-    while (tokenParser != null && getDepth(tokenParser) >= depth) {
-      tokenParser.readToken();
+  private static final class ObjectParser implements Parser {
+    @NotNull
+    private final Parser[] paramParsers;
+    @NotNull
+    private final MethodHandle ctor;
+
+    private ObjectParser(@NotNull Class<?> type) {
+      final Constructor<?>[] ctors = type.getDeclaredConstructors();
+      if (ctors.length != 1) {
+        throw new IllegalStateException("Can't find parser ctor for object: " + type.getName());
+      }
+      final Parameter[] ctorParams = ctors[0].getParameters();
+      paramParsers = new Parser[ctorParams.length];
+      for (int i = 0; i < paramParsers.length; ++i) {
+        paramParsers[i] = getParser(ctorParams[i].getType());
+      }
+      try {
+        ctor = MethodHandles.lookup()
+            .unreflectConstructor(ctors[0])
+            .asSpreader(Object[].class, ctorParams.length)
+            .asType(MethodType.methodType(Object.class, Object[].class));
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException(e);
+      }
     }
-    try {
-      //noinspection unchecked
-      return (T) ctor.newInstance(params);
-    } catch (ReflectiveOperationException e) {
-      throw new IllegalStateException(e);
+
+    @NotNull
+    @Override
+    public Object parse(@Nullable SvnServerParser tokenParser) throws IOException {
+      tokenParser = beginList(tokenParser);
+      final int depth = getDepth(tokenParser);
+      final Object[] params = new Object[paramParsers.length];
+      for (int i = 0; i < params.length; ++i) {
+        params[i] = paramParsers[i].parse(getDepth(tokenParser) == depth ? tokenParser : null);
+      }
+      while (tokenParser != null && getDepth(tokenParser) >= depth) {
+        tokenParser.readToken();
+      }
+      try {
+        return (Object) ctor.invokeExact(params);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new IllegalStateException(e);
+      }
     }
   }
 
@@ -142,17 +196,18 @@ public final class MessageParser {
       return emptyInts;
     }
     if (tokenParser.readItem(ListBeginToken.class) != null) {
-      final List<Integer> result = new ArrayList<>();
+      // Revision list is usually empty or contains single element.
+      int[] result = emptyInts;
+      int size = 0;
       while (true) {
         final NumberToken token = tokenParser.readItem(NumberToken.class);
         if (token == null) break;
-        result.add(token.getNumber());
-      }
-      final int[] array = new int[result.size()];
-      for (int i = 0; i < array.length; ++i) {
-        array[i] = result.get(i);
+        if (size == result.length) {
+          result = Arrays.copyOf(result, Math.max(1, size * 2));
+        }
+        result[size++] = token.getNumber();
       }
-      return array;
+      return size == result.length ? result : Arrays.copyOf(result, size);
     }
     return emptyInts;
   }
@@ -9,13 +9,13 @@ package svnserver.parser;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.tmatesoft.svn.core.SVNException;
 import svnserver.parser.token.*;
 
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
 
 /**
  * Интерфейс для чтения токенов из потока.
@@ -128,17 +128,26 @@ public class SvnServerParser {
   }
 
   private SvnServerToken readNumberToken(byte first) throws IOException {
+    final int result = readDigits(first);
+    if (buffer[offset - 1] == ':') {
+      return readString(result);
+    }
+    return new NumberToken(result);
+  }
+
+  /**
+   * Read number digits until ':' or space character.
+   * Terminating character is available as buffer[offset - 1].
+   */
+  private int readDigits(byte first) throws IOException {
     int result = first - '0';
     while (true) {
       while (offset < limit) {
         final byte data = buffer[offset];
         offset++;
         if ((data < '0') || (data > '9')) {
-          if (data == ':') {
-            return readString(result);
-          }
-          if (isSpace(data)) {
-            return new NumberToken(result);
+          if ((data == ':') || isSpace(data)) {
+            return result;
           }
           throw new IOException("Unexpected character in stream: " + data + " (need ' ', '\\n' or ':')");
         }
@@ -152,6 +161,48 @@ public class SvnServerParser {
     }
   }
 
+  /**
+   * Read binary string item and pass it content to consumer without copying to intermediate array.
+   * <p>
+   * Consumer receives parser buffer slices and can be called multiple times for one string.
+   *
+   * @param consumer String data consumer.
+   * @return Returns false on end of list.
+   */
+  public boolean readBinary(@NotNull BinaryConsumer consumer) throws IOException, SVNException {
+    final byte read = skipSpaces();
+    if (read == ')') {
+      depth--;
+      if (depth < 0) {
+        throw new IOException("Unexpect end of list token.");
+      }
+      return false;
+    }
+    if (!isDigit(read)) {
+      throw new IOException("Unexpected character in stream: " + read + " (need '0'..'9')");
+    }
+    int length = readDigits(read);
+    if (buffer[offset - 1] != ':') {
+      throw new IOException("Unexpected token: " + new NumberToken(length) + " (expected: " + StringToken.class.getName() + ')');
+    }
+    while (true) {
+      final int size = Math.min(length, limit - offset);
+      if (size > 0) {
+        consumer.accept(buffer, offset, size);
+        offset += size;
+        length -= size;
+      }
+      if (length == 0) {
+        return true;
+      }
+      offset = 0;
+      limit = stream.read(buffer);
+      if (limit < 0) {
+        throw new EOFException();
+      }
+    }
+  }
+
   private byte skipSpaces() throws IOException {
     while (true) {
       while (offset < limit) {
@@ -186,6 +237,7 @@ public class SvnServerParser {
     if (limit < 0) {
       throw new EOFException();
     }
+    // Token data is read directly into resulting array.
     final byte[] token = new byte[length];
     if (length <= limit - offset) {
       System.arraycopy(buffer, offset, token, 0, length);
@@ -204,7 +256,7 @@ public class SvnServerParser {
         position += size;
       }
     }
-    return new StringToken(Arrays.copyOf(token, length));
+    return new StringToken(token);
   }
 
   private static boolean isAlpha(int data) {
@@ -248,6 +300,19 @@ public class SvnServerParser {
     throw new IOException("Data is too long. Buffer overflow: " + buffer.length);
   }
 
+  /**
+   * Check for buffered and not parsed data.
+   * Whitespaces in buffer are skipped.
+   *
+   * @return Returns true, if next token can't be read without stream access.
+   */
+  public boolean isBufferEmpty() {
+    while (offset < limit && isSpace(buffer[offset])) {
+      offset++;
+    }
+    return offset >= limit;
+  }
+
   public void skipItems() throws IOException {
     int depth = 0;
     while (depth >= 0) {
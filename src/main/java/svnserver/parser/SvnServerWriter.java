@@ -19,16 +19,57 @@ import java.util.Map;
 
 /**
  * Интерфейс для записи данных в поток.
+ * <p>
+ * By default stream is flushed after every top-level token. In corked mode data is flushed only
+ * on buffer overflow and on {@link #uncork()}, so long editor drives are sent in large packets.
  *
  * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
  */
 public class SvnServerWriter {
+  private static final int BUFFER_SIZE = 64 * 1024;
+
   @NotNull
   private final OutputStream stream;
   private int depth = 0;
+  private int corked = 0;
 
+  /**
+   * Create writer.
+   *
+   * @param stream Output stream. Writer has own buffer, so stream should not be buffered.
+   */
   public SvnServerWriter(@NotNull OutputStream stream) {
-    this.stream = new BufferedOutputStream(stream);
+    this(stream, BUFFER_SIZE);
+  }
+
+  public SvnServerWriter(@NotNull OutputStream stream, int bufferSize) {
+    this.stream = new BufferedOutputStream(stream, bufferSize);
+  }
+
+  /**
+   * Disable flush after top-level tokens until {@link #uncork()} call.
+   * <p>
+   * Corked writer must be uncorked before waiting for client data. Calls can be nested.
+   */
+  public void cork() {
+    corked++;
+  }
+
+  /**
+   * Leave corked mode and flush buffered data.
+   */
+  public void uncork() throws IOException {
+    if (corked <= 0) {
+      throw new IllegalStateException("Writer is not corked.");
+    }
+    corked--;
+    if (corked == 0) {
+      stream.flush();
+    }
+  }
+
+  public void flush() throws IOException {
+    stream.flush();
   }
 
   @NotNull
@@ -44,7 +85,7 @@ public class SvnServerWriter {
   @NotNull
   public SvnServerWriter word(@NotNull String word) throws IOException {
     WordToken.write(stream, word);
-    if (depth == 0) stream.flush();
+    flushTopLevel();
     return this;
   }
 
@@ -73,14 +114,29 @@ public class SvnServerWriter {
   @NotNull
   public SvnServerWriter binary(@NotNull byte[] data, int offset, int length) throws IOException {
     StringToken.write(stream, data, offset, length);
-    if (depth == 0) stream.flush();
+    flushTopLevel();
+    return this;
+  }
+
+  /**
+   * Write already serialized data.
+   *
+   * @param data Serialized data. Must contain only complete top-level items.
+   */
+  @NotNull
+  public SvnServerWriter raw(@NotNull byte[] data, int offset, int length) throws IOException {
+    if (depth != 0) {
+      throw new IllegalStateException("Raw data can be written only at top level.");
+    }
+    stream.write(data, offset, length);
+    flushTopLevel();
     return this;
   }
 
   @NotNull
   public SvnServerWriter number(long number) throws IOException {
     NumberToken.write(stream, number);
-    if (depth == 0) stream.flush();
+    flushTopLevel();
     return this;
   }
 
@@ -108,11 +164,17 @@ public class SvnServerWriter {
     }
     if (depth == 0) {
       separator();
-      stream.flush();
+      flushTopLevel();
     }
     return this;
   }
 
+  private void flushTopLevel() throws IOException {
+    if (depth == 0 && corked == 0) {
+      stream.flush();
+    }
+  }
+
   @NotNull
   public SvnServerWriter writeMap(@Nullable Map<String, String> properties) throws IOException {
     listBegin();
@@ -0,0 +1,232 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository;
+
+import org.apache.http.annotation.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import svnserver.context.Shared;
+import svnserver.context.SharedContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background repository initialization.
+ * <p>
+ * Repositories are initialized by bounded thread pool, so server accepts connections before all
+ * repositories are ready. Initialization starts on server ready and cheap repositories are initialized
+ * first. Repository with waiting client is moved to the head of queue. Failed initialization is retried
+ * with exponential backoff.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+@ThreadSafe
+public final class RepositoryWarmer implements Shared {
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(RepositoryWarmer.class);
+  private static final long RETRY_MIN_DELAY = TimeUnit.SECONDS.toMillis(10);
+  private static final long RETRY_MAX_DELAY = TimeUnit.MINUTES.toMillis(10);
+
+  @NotNull
+  private final Map<VcsRepository, Task> tasks = new ConcurrentHashMap<>();
+  @NotNull
+  private final AtomicLong lastSequence = new AtomicLong();
+  @NotNull
+  private final ThreadPoolExecutor executor;
+  @NotNull
+  private final ScheduledExecutorService retryExecutor;
+  private volatile boolean started = false;
+
+  /**
+   * Create warmer.
+   *
+   * @param threads Initialization thread count (0 - one per CPU core).
+   */
+  public RepositoryWarmer(int threads) {
+    final int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    // Executor uses task order from priority queue only with execute(), submit() wraps tasks.
+    executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, new PriorityBlockingQueue<>(), runnable -> {
+      final Thread thread = new Thread(runnable, "RepositoryWarmer");
+      thread.setDaemon(true);
+      return thread;
+    });
+    retryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "RepositoryWarmer-retry");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Schedule repository initialization.
+   *
+   * @param name       Repository name (for logging).
+   * @param repository Repository.
+   */
+  public void submit(@NotNull String name, @NotNull VcsRepository repository) {
+    submit(name, repository, 0);
+  }
+
+  private void submit(@NotNull String name, @NotNull VcsRepository repository, int attempt) {
+    long cost;
+    try {
+      cost = repository.getWarmupCost();
+    } catch (Exception e) {
+      log.warn("Can't estimate initialization cost for repository: {}", name, e);
+      cost = Long.MAX_VALUE;
+    }
+    final Task task = new Task(name, repository, cost, lastSequence.incrementAndGet(), attempt);
+    final Task prev = tasks.putIfAbsent(repository, task);
+    // Failed initialization is replaced by new task.
+    if (prev != null && !(prev.done.isCompletedExceptionally() && tasks.replace(repository, prev, task))) {
+      return;
+    }
+    if (started) {
+      task.enqueue();
+    }
+  }
+
+  @Override
+  public void ready(@NotNull SharedContext context) {
+    started = true;
+    // Queue is ordered only for waiting tasks, so pool threads should not take tasks in submission order.
+    final List<Task> pending = new ArrayList<>(tasks.values());
+    Collections.sort(pending);
+    for (Task task : pending) {
+      task.enqueue();
+    }
+  }
+
+  /**
+   * Check repository is successfully initialized.
+   */
+  public boolean isReady(@NotNull VcsRepository repository) {
+    return !tasks.containsKey(repository);
+  }
+
+  /**
+   * Wait for repository initialization. Waiting repository is initialized before other queued repositories.
+   *
+   * @param repository Repository.
+   * @param timeout    Wait timeout in milliseconds.
+   * @return Returns false, if repository is still not initialized.
+   * @throws ExecutionException Repository initialization failed.
+   */
+  public boolean await(@NotNull VcsRepository repository, long timeout) throws InterruptedException, ExecutionException {
+    final Task task = tasks.get(repository);
+    if (task == null) {
+      return true;
+    }
+    task.promote();
+    try {
+      task.done.get(timeout, TimeUnit.MILLISECONDS);
+      return true;
+    } catch (TimeoutException | CancellationException e) {
+      return false;
+    }
+  }
+
+  @Override
+  public void close() {
+    retryExecutor.shutdownNow();
+    executor.shutdownNow();
+  }
+
+  private final class Task implements Runnable, Comparable<Task> {
+    @NotNull
+    private final String name;
+    @NotNull
+    private final VcsRepository repository;
+    private final long cost;
+    private final long sequence;
+    private final int attempt;
+    @NotNull
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+    // Task priority is changed only while task is out of queue.
+    private volatile boolean hot = false;
+    private boolean queued = false;
+
+    private Task(@NotNull String name, @NotNull VcsRepository repository, long cost, long sequence, int attempt) {
+      this.name = name;
+      this.repository = repository;
+      this.cost = cost;
+      this.sequence = sequence;
+      this.attempt = attempt;
+    }
+
+    private synchronized void enqueue() {
+      if (!queued) {
+        queued = true;
+        execute();
+      }
+    }
+
+    private synchronized void promote() {
+      if (hot) {
+        return;
+      }
+      if (!queued) {
+        hot = true;
+      } else if (executor.getQueue().remove(this)) {
+        hot = true;
+        execute();
+      }
+    }
+
+    private void execute() {
+      try {
+        executor.execute(this);
+      } catch (RejectedExecutionException ignored) {
+        // Warmer is closed.
+        tasks.remove(repository, this);
+        done.cancel(false);
+      }
+    }
+
+    @Override
+    public int compareTo(@NotNull Task o) {
+      if (hot != o.hot) {
+        return hot ? -1 : 1;
+      }
+      if (cost != o.cost) {
+        return Long.compare(cost, o.cost);
+      }
+      return Long.compare(sequence, o.sequence);
+    }
+
+    @Override
+    public void run() {
+      log.info("Repository initialize: {}", name);
+      try {
+        repository.updateRevisions();
+        tasks.remove(repository, this);
+        done.complete(null);
+      } catch (Throwable e) {
+        // Failed task is kept, so repository is not served until retry succeeds.
+        final long delay = Math.min(RETRY_MIN_DELAY << Math.min(attempt, 16), RETRY_MAX_DELAY);
+        log.error("Can't initialize repository: {} (retry in {} seconds)", name, TimeUnit.MILLISECONDS.toSeconds(delay), e);
+        done.completeExceptionally(e);
+        retry(delay);
+      }
+    }
+
+    private void retry(long delay) {
+      try {
+        retryExecutor.schedule(() -> submit(name, repository, attempt + 1), delay, TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException ignored) {
+        // Warmer is closed.
+      }
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository;
+
+import org.apache.http.annotation.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import svnserver.context.Shared;
+import svnserver.context.SharedContext;
+
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Background revision updater.
+ * <p>
+ * Periodically checks registered repositories for new revisions and imports them, so client connections
+ * only read already published revisions. Check interval grows while repository is not changed.
+ * Repositories are skipped until {@link RepositoryWarmer} initializes them.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+@ThreadSafe
+public final class RevisionWatcher implements Shared {
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(RevisionWatcher.class);
+  private static final int MAX_BACKOFF = 16;
+
+  private final long interval;
+  @NotNull
+  private final Map<VcsRepository, Entry> repositories = new ConcurrentHashMap<>();
+  @Nullable
+  private volatile ScheduledExecutorService executor;
+  @Nullable
+  private volatile RepositoryWarmer warmer;
+
+  /**
+   * Create watcher.
+   *
+   * @param interval Minimal check interval in milliseconds.
+   */
+  public RevisionWatcher(long interval) {
+    this.interval = interval;
+  }
+
+  @Override
+  public synchronized void ready(@NotNull SharedContext context) {
+    if (executor == null) {
+      warmer = context.get(RepositoryWarmer.class);
+      executor = Executors.newScheduledThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), runnable -> {
+        final Thread thread = new Thread(runnable, "RevisionWatcher");
+        thread.setDaemon(true);
+        return thread;
+      });
+      for (Entry entry : repositories.values()) {
+        entry.schedule(interval);
+      }
+    }
+  }
+
+  public void register(@NotNull VcsRepository repository) {
+    final Entry entry = new Entry(repository);
+    if (repositories.putIfAbsent(repository, entry) == null) {
+      entry.schedule(interval);
+    }
+  }
+
+  public void unregister(@NotNull VcsRepository repository) {
+    final Entry entry = repositories.remove(repository);
+    if (entry != null) {
+      entry.cancel();
+    }
+  }
+
+  /**
+   * Check repository for new revisions as soon as possible.
+   */
+  public void refresh(@NotNull VcsRepository repository) {
+    final Entry entry = repositories.get(repository);
+    if (entry != null) {
+      entry.backoff = 1;
+      entry.schedule(0);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    final ScheduledExecutorService service = executor;
+    if (service != null) {
+      service.shutdownNow();
+    }
+  }
+
+  private final class Entry implements Runnable {
+    @NotNull
+    private final VcsRepository repository;
+    @Nullable
+    private ScheduledFuture<?> future;
+    private volatile int backoff = 1;
+
+    private Entry(@NotNull VcsRepository repository) {
+      this.repository = repository;
+    }
+
+    private synchronized void schedule(long delay) {
+      final ScheduledExecutorService service = executor;
+      if (service == null || service.isShutdown() || repositories.get(repository) != this) {
+        return;
+      }
+      if (future != null) {
+        if (future.getDelay(TimeUnit.MILLISECONDS) <= delay) {
+          return;
+        }
+        future.cancel(false);
+      }
+      try {
+        future = service.schedule(this, delay, TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException ignored) {
+        // Watcher is closed.
+      }
+    }
+
+    private synchronized void cancel() {
+      if (future != null) {
+        future.cancel(false);
+        future = null;
+      }
+    }
+
+    @Override
+    public void run() {
+      synchronized (this) {
+        future = null;
+      }
+      final RepositoryWarmer initializer = warmer;
+      if (initializer != null && !initializer.isReady(repository)) {
+        // Repository is initialized by warmer in its own order.
+        schedule(interval);
+        return;
+      }
+      try {
+        if (repository.updateRevisions()) {
+          backoff = 1;
+        } else {
+          backoff = Math.min(backoff * 2, MAX_BACKOFF);
+        }
+      } catch (Exception e) {
+        log.error("Can't update repository revisions", e);
+        backoff = MAX_BACKOFF;
+      }
+      schedule(interval * backoff);
+    }
+  }
+}
@@ -8,6 +8,7 @@
 package svnserver.repository;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.tmatesoft.svn.core.SVNException;
 import svnserver.auth.User;
 import svnserver.context.LocalContext;
@@ -60,9 +61,18 @@ public interface VcsRepository extends AutoCloseable {
   /**
    * Update revision information.
    *
+   * @return Returns true, if new revisions are loaded.
    * @throws IOException
    */
-  void updateRevisions() throws IOException, SVNException;
+  boolean updateRevisions() throws IOException, SVNException;
+
+  /**
+   * Estimate cost of revision update. Used for ordering of repository initialization.
+   *
+   * @return Estimated cost (0 - repository is up to date).
+   * @throws IOException
+   */
+  long getWarmupCost() throws IOException;
 
   /**
    * Get revision info.
@@ -83,6 +93,36 @@ public interface VcsRepository extends AutoCloseable {
    */
   int getLastChange(@NotNull String nodePath, int beforeRevision);
 
+  /**
+   * Get first revision of continuous file existence, which contains target revision.
+   *
+   * @param nodePath       File path.
+   * @param beforeRevision Target revision.
+   * @return Revision, when file was created (or < 0, if file not exists in target revision).
+   */
+  int getFirstChange(@NotNull String nodePath, int beforeRevision);
+
+  /**
+   * Get next file update after target revision.
+   *
+   * @param nodePath      File path.
+   * @param afterRevision Target revision (exclusive).
+   * @return Next revision, when file was changed or removed (or < 0, if file is not changed after target revision).
+   */
+  int getNextChange(@NotNull String nodePath, int afterRevision);
+
+  /**
+   * Get copy source of file, created in target revision.
+   * <p>
+   * Unlike {@link VcsRevision#getCopyFrom(String)} revision information is not loaded.
+   *
+   * @param nodePath File path.
+   * @param revision File creation revision.
+   * @return Copy source or null, if file is not copied in target revision.
+   */
+  @Nullable
+  VcsCopyFrom getCopyFrom(@NotNull String nodePath, int revision);
+
   /**
    * Run some work with blocking lock modification.
    */
@@ -13,8 +13,6 @@ import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.SVNURL;
 import svnserver.context.Shared;
 
-import java.io.IOException;
-
 /**
  * Resolving repository by URL.
  *
@@ -25,9 +23,9 @@ public interface VcsRepositoryMapping extends Shared {
   RepositoryInfo getRepository(@NotNull SVNURL url) throws SVNException;
 
   /**
-   * Update revision information in all mapped repositories.
+   * Schedule revision information update in all mapped repositories.
    *
-   * @throws IOException
+   * @param warmer Repository initialization queue.
    */
-  void initRevisions() throws IOException, SVNException;
+  void initRevisions(@NotNull RepositoryWarmer warmer);
 }
@@ -24,7 +24,7 @@ public interface VcsRevision {
   int getId();
 
   @NotNull
-  Map<String, String> getProperties(boolean includeInternalProps);
+  Map<String, String> getProperties(boolean includeInternalProps) throws IOException;
 
   long getDate();
 
@@ -34,10 +34,10 @@ public interface VcsRevision {
   }
 
   @Nullable
-  String getAuthor();
+  String getAuthor() throws IOException;
 
   @Nullable
-  String getLog();
+  String getLog() throws IOException;
 
   @Nullable
   VcsFile getFile(@NotNull String fullPath) throws IOException, SVNException;
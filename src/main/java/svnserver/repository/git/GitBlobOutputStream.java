@@ -0,0 +1,118 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import svnserver.TemporaryOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Output stream for new git blob content.
+ * <p>
+ * Git object header contains content size, so blob can be inserted only after all content is written.
+ * Content is kept in small memory buffer and inserted from it directly. Temporary file is used
+ * only for content larger than buffer.
+ * <p>
+ * Stream can be closed by wrapping streams, so blob is inserted by explicit {@link #insert} call
+ * and temporary data is freed by {@link #insert} or {@link #release} call.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+final class GitBlobOutputStream extends OutputStream {
+  private static final int MEMORY_BUFFER_SIZE = 256 * 1024;
+  private static final int INITIAL_BUFFER_SIZE = 4 * 1024;
+
+  @NotNull
+  private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+  private int bufferSize = 0;
+  @Nullable
+  private TemporaryOutputStream content;
+
+  @Override
+  public void write(int b) throws IOException {
+    if (content == null && reserve(1)) {
+      buffer[bufferSize++] = (byte) b;
+      return;
+    }
+    spill().write(b);
+  }
+
+  @Override
+  public void write(@NotNull byte[] b, int off, int len) throws IOException {
+    if (content == null && reserve(len)) {
+      System.arraycopy(b, off, buffer, bufferSize, len);
+      bufferSize += len;
+      return;
+    }
+    spill().write(b, off, len);
+  }
+
+  private boolean reserve(int len) {
+    final int required = bufferSize + len;
+    if (required > MEMORY_BUFFER_SIZE) {
+      return false;
+    }
+    if (required > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.min(Math.max(buffer.length * 2, required), MEMORY_BUFFER_SIZE));
+    }
+    return true;
+  }
+
+  @NotNull
+  private TemporaryOutputStream spill() throws IOException {
+    if (content == null) {
+      content = new TemporaryOutputStream(0);
+      content.write(buffer, 0, bufferSize);
+      buffer = GitRepository.emptyBytes;
+      bufferSize = 0;
+    }
+    return content;
+  }
+
+  /**
+   * Insert written content as blob.
+   *
+   * @param inserter Object inserter.
+   * @return Blob object id.
+   */
+  @NotNull
+  public ObjectId insert(@NotNull ObjectInserter inserter) throws IOException {
+    try {
+      if (content == null) {
+        return inserter.insert(Constants.OBJ_BLOB, buffer, 0, bufferSize);
+      }
+      try (InputStream stream = content.toInputStream()) {
+        return inserter.insert(Constants.OBJ_BLOB, content.size(), stream);
+      }
+    } finally {
+      release();
+    }
+  }
+
+  /**
+   * Free written content (including temporary file) without blob insertion.
+   * Can be called multiple times.
+   */
+  public void release() throws IOException {
+    buffer = GitRepository.emptyBytes;
+    bufferSize = 0;
+    if (content != null) {
+      final TemporaryOutputStream stream = content;
+      content = null;
+      stream.close();
+    }
+  }
+}
@@ -22,10 +22,10 @@ import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.SVNProperty;
 import org.tmatesoft.svn.core.io.diff.SVNDeltaProcessor;
 import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
-import svnserver.TemporaryOutputStream;
 import svnserver.auth.User;
 import svnserver.repository.VcsDeltaConsumer;
 import svnserver.repository.git.filter.GitFilter;
+import svnserver.repository.git.filter.GitFilterRaw;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -63,8 +63,8 @@ public class GitDeltaConsumer implements VcsDeltaConsumer {
   @Nullable
   private GitFilter newFilter;
 
-  @NotNull
-  private TemporaryOutputStream temporaryStream;
+  @Nullable
+  private GitBlobOutputStream blobStream;
   @Nullable
   private String md5;
 
@@ -85,7 +85,6 @@ public class GitDeltaConsumer implements VcsDeltaConsumer {
     }
     this.newFilter = null;
     this.objectId = originalId;
-    this.temporaryStream = new TemporaryOutputStream();
   }
 
   @NotNull
@@ -120,19 +119,25 @@ public class GitDeltaConsumer implements VcsDeltaConsumer {
     if (!newFilter.equals(filter)) {
       final Repository repo = writer.getRepository().getRepository();
 
-      try (
-          final TemporaryOutputStream content = new TemporaryOutputStream();
-          final TemporaryOutputStream.Holder holder = content.holder()
-      ) {
-        try (InputStream inputStream = newFilter.inputStream(objectId);
-             OutputStream outputStream = filter.outputStream(content, user)) {
-          ByteStreams.copy(inputStream, outputStream);
+      if (filter.getName().equals(GitFilterRaw.NAME)) {
+        // Raw blob size is known before writing, so content is streamed to inserter without staging.
+        final long size = newFilter.getSize(objectId);
+        try (InputStream inputStream = newFilter.inputStream(objectId)) {
+          objectId = new GitObject<>(repo, writer.getInserter().insert(Constants.OBJ_BLOB, size, inputStream));
         }
-        try (InputStream inputStream = content.toInputStream()) {
-          objectId = new GitObject<>(repo, writer.getInserter().insert(Constants.OBJ_BLOB, content.size(), inputStream));
-          newFilter = filter;
+      } else {
+        final GitBlobOutputStream content = new GitBlobOutputStream();
+        try {
+          try (InputStream inputStream = newFilter.inputStream(objectId);
+               OutputStream outputStream = filter.outputStream(content, user)) {
+            ByteStreams.copy(inputStream, outputStream);
+          }
+          objectId = new GitObject<>(repo, content.insert(writer.getInserter()));
+        } finally {
+          content.release();
         }
       }
+      newFilter = filter;
     }
     return !beforeId.equals(objectId);
   }
@@ -150,8 +155,9 @@ public class GitDeltaConsumer implements VcsDeltaConsumer {
         throw new SVNException(SVNErrorMessage.create(SVNErrorCode.RA_SVN_CMD_ERR));
 
       newFilter = writer.getRepository().getFilter(props.containsKey(SVNProperty.SPECIAL) ? FileMode.SYMLINK : FileMode.REGULAR_FILE, entry.getRawProperties());
+      blobStream = new GitBlobOutputStream();
       window = new SVNDeltaProcessor();
-      window.applyTextDelta((oldFilter != null && objectId != null) ? oldFilter.inputStream(objectId) : new ByteArrayInputStream(GitRepository.emptyBytes), newFilter.outputStream(temporaryStream, user), true);
+      window.applyTextDelta((oldFilter != null && objectId != null) ? oldFilter.inputStream(objectId) : new ByteArrayInputStream(GitRepository.emptyBytes), newFilter.outputStream(blobStream, user), true);
     } catch (IOException e) {
       throw new SVNException(SVNErrorMessage.create(SVNErrorCode.IO_ERROR), e);
     }
@@ -167,14 +173,17 @@ public class GitDeltaConsumer implements VcsDeltaConsumer {
 
   @Override
   public void textDeltaEnd(String path) throws SVNException {
-    try (TemporaryOutputStream.Holder holder = temporaryStream.holder()) {
-      if (window == null)
+    try {
+      if (window == null || blobStream == null)
         throw new SVNException(SVNErrorMessage.create(SVNErrorCode.RA_SVN_CMD_ERR));
 
       final Repository repo = writer.getRepository().getRepository();
-      md5 = window.textDeltaEnd();
-      try (InputStream stream = temporaryStream.toInputStream()) {
-        objectId = new GitObject<>(repo, writer.getInserter().insert(Constants.OBJ_BLOB, temporaryStream.size(), stream));
+      try {
+        md5 = window.textDeltaEnd();
+        objectId = new GitObject<>(repo, blobStream.insert(writer.getInserter()));
+      } finally {
+        blobStream.release();
+        blobStream = null;
       }
       log.info("Created blob {} for file: {}", objectId.getObject().getName(), entry.getFullPath());
     } catch (IOException e) {
@@ -40,6 +40,12 @@ public class GitEntryImpl implements GitEntry {
     this.props = GitProperty.joinProperties(parentProps, name, fileMode, props);
   }
 
+  protected GitEntryImpl(@NotNull GitEntryImpl source) {
+    this.parentPath = source.parentPath;
+    this.name = source.name;
+    this.props = source.props;
+  }
+
   @NotNull
   @Override
   public GitProperty[] getRawProperties() {
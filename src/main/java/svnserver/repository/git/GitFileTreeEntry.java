@@ -32,6 +32,9 @@ import java.util.*;
  * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
  */
 public class GitFileTreeEntry extends GitEntryImpl implements GitFile {
+  @NotNull
+  private static final FileMode[] SEARCH_MODES = {FileMode.REGULAR_FILE, FileMode.TREE};
+
   @NotNull
   private final GitRepository repo;
   @NotNull
@@ -45,7 +48,7 @@ public class GitFileTreeEntry extends GitEntryImpl implements GitFile {
   @NotNull
   private final EntriesCache entriesCache;
   @Nullable
-  private Iterable<GitFile> treeEntriesCache;
+  private volatile Iterable<GitFile> treeEntriesCache;
 
   private GitFileTreeEntry(@NotNull GitRepository repo, @NotNull GitProperty[] parentProps, @NotNull String parentPath, @NotNull GitTreeEntry treeEntry, int revision, @NotNull EntriesCache entriesCache) throws IOException, SVNException {
     super(parentProps, parentPath, repo.collectProperties(treeEntry, entriesCache), treeEntry.getFileName(), treeEntry.getFileMode());
@@ -56,13 +59,22 @@ public class GitFileTreeEntry extends GitEntryImpl implements GitFile {
     this.filter = repo.getFilter(treeEntry.getFileMode(), this.getRawProperties());
   }
 
+  private GitFileTreeEntry(@NotNull GitFileTreeEntry source) {
+    super(source);
+    this.repo = source.repo;
+    this.revision = source.revision;
+    this.treeEntry = source.treeEntry;
+    this.entriesCache = source.entriesCache;
+    this.filter = source.filter;
+  }
+
   @NotNull
-  public static GitFile create(@NotNull GitRepository repo, @NotNull RevTree tree, int revision) throws IOException, SVNException {
+  public static GitFileTreeEntry create(@NotNull GitRepository repo, @NotNull RevTree tree, int revision) throws IOException, SVNException {
     return create(repo, PropertyMapping.getRootProperties(), "", new GitTreeEntry(repo.getRepository(), FileMode.TREE, tree, ""), revision);
   }
 
   @NotNull
-  private static GitFile create(@NotNull GitRepository repo, @NotNull GitProperty[] parentProps, @NotNull String parentPath, @NotNull GitTreeEntry treeEntry, int revision) throws IOException, SVNException {
+  private static GitFileTreeEntry create(@NotNull GitRepository repo, @NotNull GitProperty[] parentProps, @NotNull String parentPath, @NotNull GitTreeEntry treeEntry, int revision) throws IOException, SVNException {
     return new GitFileTreeEntry(repo, parentProps, parentPath, treeEntry, revision, new EntriesCache(repo, treeEntry));
   }
 
@@ -155,11 +167,25 @@ public class GitFileTreeEntry extends GitEntryImpl implements GitFile {
     return treeEntriesCache;
   }
 
+  /**
+   * Create copy of entry without materialized child entries.
+   * <p>
+   * Used for long-living cached entries: children, created by {@link #getEntries()}, are retained
+   * only by returned copy.
+   */
+  @NotNull
+  GitFileTreeEntry copy() {
+    return new GitFileTreeEntry(this);
+  }
+
   @Nullable
-  public GitFile getEntry(@NotNull String name) throws IOException, SVNException {
-    for (GitTreeEntry entry : entriesCache.get()) {
-      if (entry.getFileName().equals(name)) {
-        return create(repo, getRawProperties(), getFullPath(), entry, revision);
+  public GitFileTreeEntry getEntry(@NotNull String name) throws IOException, SVNException {
+    final List<GitTreeEntry> entries = entriesCache.getList();
+    // Entries are in canonical git order, where directory name is compared with trailing slash.
+    for (FileMode fileMode : SEARCH_MODES) {
+      final int index = Collections.binarySearch(entries, new GitTreeEntry(repo.getRepository(), fileMode, ObjectId.zeroId(), name));
+      if (index >= 0) {
+        return create(repo, getRawProperties(), getFullPath(), entries.get(index), revision);
       }
     }
     return null;
@@ -197,7 +223,8 @@ public class GitFileTreeEntry extends GitEntryImpl implements GitFile {
   private static class EntriesCache implements VcsSupplier<Iterable<GitTreeEntry>> {
     private final GitRepository repo;
     private final GitTreeEntry treeEntry;
-    public Iterable<GitTreeEntry> rawEntriesCache;
+    @Nullable
+    private volatile List<GitTreeEntry> rawEntriesCache;
 
     public EntriesCache(GitRepository repo, GitTreeEntry treeEntry) {
       this.repo = repo;
@@ -206,10 +233,17 @@ public class GitFileTreeEntry extends GitEntryImpl implements GitFile {
 
     @Override
     public Iterable<GitTreeEntry> get() throws SVNException, IOException {
-      if (rawEntriesCache == null) {
-        rawEntriesCache = repo.loadTree(treeEntry);
+      return getList();
+    }
+
+    @NotNull
+    public List<GitTreeEntry> getList() throws IOException {
+      List<GitTreeEntry> result = rawEntriesCache;
+      if (result == null) {
+        result = repo.loadTree(treeEntry);
+        rawEntriesCache = result;
       }
-      return rawEntriesCache;
+      return result;
     }
   }
 }
@@ -10,6 +10,7 @@ package svnserver.repository.git;
 import org.eclipse.jgit.lib.AnyObjectId;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectLoader;
+import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Repository;
 import org.jetbrains.annotations.NotNull;
 
@@ -52,7 +53,10 @@ public class GitObject<T extends ObjectId> {
 
   @NotNull
   public ObjectLoader openObject() throws IOException {
-    return repo.newObjectReader().open(object);
+    // Large object streams use own readers, so loader stays valid after reader close.
+    try (ObjectReader reader = repo.newObjectReader()) {
+      return reader.open(object);
+    }
   }
 
   @Override
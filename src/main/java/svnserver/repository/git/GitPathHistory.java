@@ -0,0 +1,326 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Path change history index.
+ * <p>
+ * Paths are stored as tree of path components, so common prefixes are stored once.
+ * Every path has sorted list of changed revisions with inline deletion marks. List is
+ * delta-encoded and split into blocks with absolute first value, so search is logarithmic.
+ * Path creation revisions are also stored separately, so existence interval start is found without history scan.
+ * <p>
+ * Single writer (revision import) and many lock-free readers: tree nodes are published via
+ * concurrent maps, revision lists publish new items by volatile item count.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+final class GitPathHistory {
+  public static final int NO_REVISION = -1;
+
+  @NotNull
+  private final Node root = new Node();
+  // Shared component names.
+  @NotNull
+  private final Map<String, String> names = new HashMap<>();
+
+  /**
+   * Register path change.
+   *
+   * @param path     Path.
+   * @param revision Revision number. Should not be less than last registered revision for this path.
+   * @param deleted  Path is removed in this revision.
+   */
+  public void add(@NotNull String path, int revision, boolean deleted) {
+    Node node = root;
+    int begin = 0;
+    while (true) {
+      final int end = path.indexOf('/', begin);
+      node = node.getOrCreate(path.substring(begin, end < 0 ? path.length() : end), names);
+      if (end < 0) {
+        break;
+      }
+      begin = end + 1;
+    }
+    RevisionList revisions = node.revisions;
+    if (revisions == null) {
+      revisions = new RevisionList();
+      node.revisions = revisions;
+    }
+    revisions.add(revision, deleted);
+  }
+
+  /**
+   * Get last revision, when path was changed.
+   *
+   * @param path           Path.
+   * @param beforeRevision Upper bound of revision (inclusive).
+   * @return Revision number or {@link #NO_REVISION}, if path doesn't exist in revision.
+   */
+  public int getLastChange(@NotNull String path, int beforeRevision) {
+    final RevisionList revisions = getRevisions(path);
+    return revisions == null ? NO_REVISION : revisions.getLastChange(beforeRevision);
+  }
+
+  /**
+   * Get first revision of path existence interval, which contains given revision.
+   *
+   * @param path           Path.
+   * @param beforeRevision Revision inside existence interval.
+   * @return Revision number or {@link #NO_REVISION}, if path doesn't exist in revision.
+   */
+  public int getFirstChange(@NotNull String path, int beforeRevision) {
+    final RevisionList revisions = getRevisions(path);
+    return revisions == null ? NO_REVISION : revisions.getFirstChange(beforeRevision);
+  }
+
+  /**
+   * Get next revision, when path was changed or removed.
+   *
+   * @param path          Path.
+   * @param afterRevision Lower bound of revision (exclusive).
+   * @return Revision number or {@link #NO_REVISION}, if path is not changed after given revision.
+   */
+  public int getNextChange(@NotNull String path, int afterRevision) {
+    final RevisionList revisions = getRevisions(path);
+    return revisions == null ? NO_REVISION : revisions.getNextChange(afterRevision);
+  }
+
+  @Nullable
+  private RevisionList getRevisions(@NotNull String path) {
+    Node node = root;
+    int begin = 0;
+    while (node != null) {
+      final int end = path.indexOf('/', begin);
+      node = node.get(path.substring(begin, end < 0 ? path.length() : end));
+      if (end < 0) {
+        break;
+      }
+      begin = end + 1;
+    }
+    return node == null ? null : node.revisions;
+  }
+
+  private static final class Node {
+    @Nullable
+    private volatile Map<String, Node> childs;
+    @Nullable
+    private volatile RevisionList revisions;
+
+    @Nullable
+    private Node get(@NotNull String name) {
+      final Map<String, Node> map = childs;
+      return map == null ? null : map.get(name);
+    }
+
+    @NotNull
+    private Node getOrCreate(@NotNull String name, @NotNull Map<String, String> names) {
+      Node child = get(name);
+      if (child == null) {
+        Map<String, Node> map = childs;
+        if (map == null) {
+          map = new ConcurrentHashMap<>(4);
+          childs = map;
+        }
+        child = new Node();
+        map.put(names.computeIfAbsent(name, key -> key), child);
+      }
+      return child;
+    }
+  }
+
+  /**
+   * Revision list. Every item is encoded as (revision << 1 | deleted).
+   * <p>
+   * First item of block is stored in {@link #blockFirst}, other items are stored as varint deltas in {@link #data}.
+   * <p>
+   * Arrays are replaced by grown copies and items are written before {@link #count} increment, so reader,
+   * which reads count first, sees all items before count.
+   */
+  static final class RevisionList {
+    private static final int BLOCK_SIZE = 16;
+
+    @NotNull
+    private volatile byte[] data = new byte[0];
+    private int dataSize = 0;
+    @NotNull
+    private volatile int[] blockFirst = new int[1];
+    @NotNull
+    private volatile int[] blockOffset = new int[1];
+    private volatile int count = 0;
+    private int last = 0;
+    // Revisions, when path was created (first item and items after deletion).
+    @NotNull
+    private volatile int[] births = new int[1];
+    private volatile int birthCount = 0;
+
+    public void add(int revision, boolean deleted) {
+      final int value = (revision << 1) | (deleted ? 1 : 0);
+      if (count > 0 && value < last) {
+        throw new IllegalStateException("Revisions should be added in ascending order: " + revision + " after " + (last >> 1));
+      }
+      if (!deleted && (count == 0 || (last & 1) != 0)) {
+        if (birthCount == births.length) {
+          births = Arrays.copyOf(births, birthCount * 2);
+        }
+        births[birthCount] = revision;
+        birthCount++;
+      }
+      if (count % BLOCK_SIZE == 0) {
+        final int block = count / BLOCK_SIZE;
+        if (block == blockFirst.length) {
+          blockFirst = Arrays.copyOf(blockFirst, block * 2);
+          blockOffset = Arrays.copyOf(blockOffset, block * 2);
+        }
+        blockFirst[block] = value;
+        blockOffset[block] = dataSize;
+      } else {
+        writeVarInt(value - last);
+      }
+      last = value;
+      count++;
+    }
+
+    public int getLastChange(int beforeRevision) {
+      final int count = this.count;
+      if (count == 0 || beforeRevision < 0) {
+        return NO_REVISION;
+      }
+      final int[] blockFirst = this.blockFirst;
+      final int[] blockOffset = this.blockOffset;
+      final byte[] data = this.data;
+      // Deletion in the same revision is encoded as larger value.
+      final int bound = (beforeRevision << 1) | 1;
+      // Find last block, started not after bound.
+      int low = 0;
+      int high = (count - 1) / BLOCK_SIZE;
+      while (low <= high) {
+        final int mid = (low + high) >>> 1;
+        if (blockFirst[mid] <= bound) {
+          low = mid + 1;
+        } else {
+          high = mid - 1;
+        }
+      }
+      if (high < 0) {
+        return NO_REVISION;
+      }
+      // Scan block.
+      final int blockEnd = Math.min(count, (high + 1) * BLOCK_SIZE);
+      int value = blockFirst[high];
+      int offset = blockOffset[high];
+      for (int i = high * BLOCK_SIZE + 1; i < blockEnd; ++i) {
+        int delta = 0;
+        int shift = 0;
+        while (true) {
+          final int b = data[offset++];
+          delta |= (b & 0x7F) << shift;
+          if ((b & 0x80) == 0) break;
+          shift += 7;
+        }
+        if (value + delta > bound) {
+          break;
+        }
+        value += delta;
+      }
+      return (value & 1) != 0 ? NO_REVISION : value >> 1;
+    }
+
+    public int getFirstChange(int beforeRevision) {
+      final int lastChange = getLastChange(beforeRevision);
+      if (lastChange < 0) {
+        return NO_REVISION;
+      }
+      // Creation revisions can contain items, which are not visible by count yet: bound search by visible change.
+      final int birthCount = this.birthCount;
+      final int[] births = this.births;
+      int low = 0;
+      int high = birthCount - 1;
+      while (low <= high) {
+        final int mid = (low + high) >>> 1;
+        if (births[mid] <= lastChange) {
+          low = mid + 1;
+        } else {
+          high = mid - 1;
+        }
+      }
+      return births[high];
+    }
+
+    public int getNextChange(int afterRevision) {
+      final int count = this.count;
+      if (count == 0) {
+        return NO_REVISION;
+      }
+      final int[] blockFirst = this.blockFirst;
+      final int[] blockOffset = this.blockOffset;
+      final byte[] data = this.data;
+      final int bound = afterRevision < 0 ? -1 : (afterRevision << 1) | 1;
+      // Find first block, which ends after bound: last block started not after bound or next one.
+      int low = 0;
+      int high = (count - 1) / BLOCK_SIZE;
+      while (low <= high) {
+        final int mid = (low + high) >>> 1;
+        if (blockFirst[mid] <= bound) {
+          low = mid + 1;
+        } else {
+          high = mid - 1;
+        }
+      }
+      final int[] values = new int[BLOCK_SIZE];
+      for (int block = Math.max(high, 0); block * BLOCK_SIZE < count; ++block) {
+        final int size = decodeBlock(block, count, blockFirst, blockOffset, data, values);
+        for (int i = 0; i < size; ++i) {
+          if (values[i] > bound) {
+            return values[i] >> 1;
+          }
+        }
+      }
+      return NO_REVISION;
+    }
+
+    private static int decodeBlock(int block, int count, @NotNull int[] blockFirst, @NotNull int[] blockOffset, @NotNull byte[] data, @NotNull int[] values) {
+      final int size = Math.min(count - block * BLOCK_SIZE, BLOCK_SIZE);
+      int value = blockFirst[block];
+      int offset = blockOffset[block];
+      values[0] = value;
+      for (int i = 1; i < size; ++i) {
+        int delta = 0;
+        int shift = 0;
+        while (true) {
+          final int b = data[offset++];
+          delta |= (b & 0x7F) << shift;
+          if ((b & 0x80) == 0) break;
+          shift += 7;
+        }
+        value += delta;
+        values[i] = value;
+      }
+      return size;
+    }
+
+    private void writeVarInt(int value) {
+      if (dataSize + 5 > data.length) {
+        data = Arrays.copyOf(data, Math.max(dataSize + 5, data.length * 2));
+      }
+      while ((value & ~0x7F) != 0) {
+        data[dataSize++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      data[dataSize++] = (byte) value;
+    }
+  }
+}
@@ -0,0 +1,139 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.apache.http.annotation.ThreadSafe;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.jetbrains.annotations.NotNull;
+import svnserver.context.Shared;
+import svnserver.context.SharedContext;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Pool of idle object readers.
+ * <p>
+ * Idle reader keeps its inflater and delta base cache, so short object reads don't start from cold reader.
+ * Pool size is shared by all repositories: least recently released readers are closed on overflow.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+@ThreadSafe
+public final class GitReaderPool implements Shared {
+  @NotNull
+  private final Deque<PooledReader> idle = new ArrayDeque<>();
+  private final int maxIdle;
+  private boolean closed = false;
+
+  /**
+   * Create pool.
+   *
+   * @param maxIdle Maximum idle reader count (0 - two per CPU core).
+   */
+  public GitReaderPool(int maxIdle) {
+    this.maxIdle = maxIdle > 0 ? maxIdle : Runtime.getRuntime().availableProcessors() * 2;
+  }
+
+  @NotNull
+  public static GitReaderPool get(@NotNull SharedContext context) {
+    return context.getOrCreate(GitReaderPool.class, () -> new GitReaderPool(0));
+  }
+
+  /**
+   * Get reader for repository. Reader should be closed for returning to pool.
+   */
+  @NotNull
+  public PooledReader acquire(@NotNull Repository repository) {
+    synchronized (idle) {
+      final Iterator<PooledReader> iter = idle.iterator();
+      while (iter.hasNext()) {
+        final PooledReader reader = iter.next();
+        if (reader.repository == repository) {
+          iter.remove();
+          return reader;
+        }
+      }
+    }
+    return new PooledReader(repository, repository.newObjectReader());
+  }
+
+  private void release(@NotNull PooledReader reader) {
+    final PooledReader evicted;
+    synchronized (idle) {
+      if (closed) {
+        evicted = reader;
+      } else {
+        idle.addFirst(reader);
+        evicted = idle.size() > maxIdle ? idle.removeLast() : null;
+      }
+    }
+    if (evicted != null) {
+      evicted.reader.close();
+    }
+  }
+
+  /**
+   * Close idle readers of removed repository.
+   */
+  public void invalidate(@NotNull Repository repository) {
+    final List<PooledReader> readers = new ArrayList<>();
+    synchronized (idle) {
+      final Iterator<PooledReader> iter = idle.iterator();
+      while (iter.hasNext()) {
+        final PooledReader reader = iter.next();
+        if (reader.repository == repository) {
+          iter.remove();
+          readers.add(reader);
+        }
+      }
+    }
+    for (PooledReader reader : readers) {
+      reader.reader.close();
+    }
+  }
+
+  @Override
+  public void close() {
+    final List<PooledReader> readers;
+    synchronized (idle) {
+      closed = true;
+      readers = new ArrayList<>(idle);
+      idle.clear();
+    }
+    for (PooledReader reader : readers) {
+      reader.reader.close();
+    }
+  }
+
+  public final class PooledReader implements AutoCloseable {
+    @NotNull
+    private final Repository repository;
+    @NotNull
+    private final ObjectReader reader;
+
+    private PooledReader(@NotNull Repository repository, @NotNull ObjectReader reader) {
+      this.repository = repository;
+      this.reader = reader;
+    }
+
+    @NotNull
+    public ObjectReader get() {
+      return reader;
+    }
+
+    @Override
+    public void close() {
+      release(this);
+    }
+  }
+}
@@ -7,6 +7,8 @@
  */
 package svnserver.repository.git;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.sun.nio.sctp.InvalidStreamException;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.diff.RenameDetector;
@@ -16,7 +18,6 @@ import org.eclipse.jgit.revwalk.RevTree;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.eclipse.jgit.treewalk.TreeWalk;
-import org.eclipse.jgit.util.IntList;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.mapdb.HTreeMap;
@@ -25,7 +26,6 @@ import org.slf4j.LoggerFactory;
 import org.tmatesoft.svn.core.SVNErrorCode;
 import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
-import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
 import svnserver.StringHelper;
 import svnserver.auth.User;
 import svnserver.context.LocalContext;
@@ -46,13 +46,12 @@ import svnserver.repository.locks.LockManagerRead;
 import svnserver.repository.locks.LockManagerWrite;
 import svnserver.repository.locks.LockWorker;
 
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.*;
 import java.util.function.BiFunction;
 
 /**
@@ -62,7 +61,10 @@ import java.util.function.BiFunction;
  */
 public class GitRepository implements VcsRepository {
   private static final int REPORT_DELAY = 2500;
-  private static final int MARK_NO_FILE = -1;
+  // Count of computed but not yet added revisions per import thread.
+  private static final int IMPORT_READAHEAD = 4;
+  private static final int COMMIT_CACHE_SIZE = 1024;
+  private static final int REVISION_CACHE_SIZE = 64;
 
   @NotNull
   private static final Logger log = LoggerFactory.getLogger(GitRepository.class);
@@ -74,16 +76,32 @@ public class GitRepository implements VcsRepository {
   private final Repository repository;
   @NotNull
   private final GitPusher pusher;
+  // Revision index and path history under construction, guarded by importLock.
   @NotNull
-  private final List<GitRevision> revisions = new ArrayList<>();
+  private GitRevisionIndex revisions = new GitRevisionIndex();
   @NotNull
-  private final TreeMap<Long, GitRevision> revisionByDate = new TreeMap<>();
+  private GitPathHistory history = new GitPathHistory();
+  private boolean journalLoaded = false;
+  // Published revision index snapshot.
   @NotNull
-  private final TreeMap<ObjectId, GitRevision> revisionByHash = new TreeMap<>();
+  private volatile GitRevisionIndex published = new GitRevisionIndex();
+  // Published path history. May contain revisions after published snapshot.
   @NotNull
-  private final Map<String, IntList> lastUpdates = new ConcurrentHashMap<>();
+  private volatile GitPathHistory lastUpdates = history;
   @NotNull
-  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final GitRevisionJournal journal;
+  @NotNull
+  private final Cache<ObjectId, RevCommit> commitCache = CacheBuilder.newBuilder()
+      .maximumSize(COMMIT_CACHE_SIZE)
+      .build();
+  // Recently used revisions with their path lookup caches.
+  @NotNull
+  private final Cache<Integer, GitRevision> revisionCache = CacheBuilder.newBuilder()
+      .maximumSize(REVISION_CACHE_SIZE)
+      .build();
+  // Lock for prevent concurrent revision import.
+  @NotNull
+  private final Object importLock = new Object();
   // Lock for prevent concurrent pushes.
   @NotNull
   private final Object pushLock = new Object();
@@ -96,28 +114,37 @@ public class GitRepository implements VcsRepository {
   @NotNull
   private final LocalContext context;
   @NotNull
-  private final Map<String, Boolean> binaryCache;
-  @NotNull
   private final Map<String, GitFilter> gitFilters;
   @NotNull
+  private final GitTreeCache treeCache;
+  @NotNull
+  private final GitReaderPool readers;
+  @NotNull
   private final Map<ObjectId, GitProperty[]> directoryPropertyCache = new ConcurrentHashMap<>();
   @NotNull
   private final Map<ObjectId, GitProperty[]> filePropertyCache = new ConcurrentHashMap<>();
   private final boolean renameDetection;
+  private final int metadataThreads;
+  private final int importThreads;
 
   public GitRepository(@NotNull LocalContext context,
                        @NotNull Repository repository,
                        @NotNull GitPusher pusher,
                        @NotNull String branch,
                        boolean renameDetection,
+                       int metadataThreads,
+                       int importThreads,
                        @NotNull LockManagerFactory lockManagerFactory) throws IOException, SVNException {
     this.context = context;
     final SharedContext shared = context.getShared();
     shared.getOrCreate(GitSubmodules.class, GitSubmodules::new).register(repository);
+    this.treeCache = shared.getOrCreate(GitTreeCache.class, () -> new GitTreeCache(GitTreeCache.DEFAULT_MEMORY));
+    this.readers = GitReaderPool.get(shared);
     this.repository = repository;
-    this.binaryCache = shared.getCacheDB().getHashMap("cache.binary");
     this.pusher = pusher;
     this.renameDetection = renameDetection;
+    this.metadataThreads = metadataThreads;
+    this.importThreads = importThreads;
     this.lockManagerFactory = lockManagerFactory;
     this.gitFilters = GitFilterHelper.createFilters(context);
 
@@ -126,6 +153,13 @@ public class GitRepository implements VcsRepository {
     final String repositoryId = loadRepositoryId(repository, svnBranch);
     this.uuid = UUID.nameUUIDFromBytes((repositoryId + "\0" + gitBranch).getBytes(StandardCharsets.UTF_8)).toString();
 
+    // Journal is loaded on first revisions update, so repository registration stays cheap.
+    this.journal = new GitRevisionJournal(getJournalFile(shared.getBasePath(), repository, svnBranch));
+    final RevisionWatcher watcher = shared.get(RevisionWatcher.class);
+    if (watcher != null) {
+      watcher.register(this);
+    }
+
     log.info("Repository registered (branch: {})", gitBranch);
   }
 
@@ -138,6 +172,26 @@ public class GitRepository implements VcsRepository {
   @Override
   public void close() throws IOException {
     context.getShared().sure(GitSubmodules.class).unregister(repository);
+    final RevisionWatcher watcher = context.getShared().get(RevisionWatcher.class);
+    if (watcher != null) {
+      watcher.unregister(this);
+    }
+    readers.invalidate(repository);
+    journal.close();
+  }
+
+  /**
+   * Revision journal is server data, so it is stored in server base path instead of git directory
+   * (git directory can be read-only or shared by several servers).
+   */
+  @Nullable
+  private static File getJournalFile(@NotNull File basePath, @NotNull Repository repository, @NotNull String refName) {
+    final File directory = repository.getDirectory();
+    if (directory == null) {
+      return null;
+    }
+    final String key = directory.getAbsolutePath() + "\0" + refName;
+    return new File(basePath, "journal/" + UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)) + ".journal");
   }
 
   @NotNull
@@ -152,7 +206,9 @@ public class GitRepository implements VcsRepository {
     while (true) {
       final RevCommit revCommit = revWalk.parseCommit(oid);
       if (revCommit.getParentCount() == 0) {
-        return LayoutHelper.loadRepositoryId(repository.newObjectReader(), oid);
+        try (ObjectReader reader = repository.newObjectReader()) {
+          return LayoutHelper.loadRepositoryId(reader, oid);
+        }
       }
       oid = revCommit.getParent(0);
     }
@@ -166,25 +222,18 @@ public class GitRepository implements VcsRepository {
    */
   public boolean loadRevisions() throws IOException, SVNException {
     // Fast check.
-    lock.readLock().lock();
-    try {
-      final int lastRevision = revisions.size() - 1;
-      final ObjectId lastCommitId;
-      if (lastRevision >= 0) {
-        lastCommitId = revisions.get(lastRevision).getCacheCommit();
-        final Ref head = repository.getRef(svnBranch);
-        if (head.getObjectId().equals(lastCommitId)) {
-          return false;
-        }
+    final GitRevisionIndex snapshot = published;
+    if (snapshot.size() > 0) {
+      final Ref head = repository.getRef(svnBranch);
+      if (head.getObjectId().equals(snapshot.getCacheCommit(snapshot.size() - 1))) {
+        return false;
       }
-    } finally {
-      lock.readLock().unlock();
     }
-    // Real loading.
-    lock.writeLock().lock();
-    try {
+    // Real loading. Readers use published snapshot, new revisions are published by batches.
+    synchronized (importLock) {
+      loadJournal();
       final int lastRevision = revisions.size() - 1;
-      final ObjectId lastCommitId = lastRevision < 0 ? null : revisions.get(lastRevision).getCacheCommit();
+      final ObjectId lastCommitId = lastRevision < 0 ? null : revisions.getCacheCommit(lastRevision);
       final Ref head = repository.getRef(svnBranch);
       final List<RevCommit> newRevs = new ArrayList<>();
       final RevWalk revWalk = new RevWalk(repository);
@@ -201,28 +250,104 @@ public class GitRepository implements VcsRepository {
       if (newRevs.isEmpty()) {
         return false;
       }
+      // Previous snapshot is kept published while rebuilt index is behind it, so readers don't see HEAD going back.
+      int keepPublished = 0;
+      if (lastCommitId != null && !objectId.equals(lastCommitId)) {
+        log.warn("Revision journal doesn't match cache commits (last: {}), reloading all revisions", lastCommitId.name());
+        keepPublished = published.size();
+        revisions = new GitRevisionIndex();
+        history = new GitPathHistory();
+        journal.reset();
+      }
       final long beginTime = System.currentTimeMillis();
       int processed = 0;
       long reportTime = beginTime;
       log.info("Loading cached revision changes: {} revision", newRevs.size());
-      for (int i = newRevs.size() - 1; i >= 0; i--) {
-        loadRevisionInfo(newRevs.get(i));
-        processed++;
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - reportTime > REPORT_DELAY) {
-          log.info("  processed cached revision: {} ({} rev/sec)", newRevs.size() - i, 1000.0f * processed / (currentTime - reportTime));
-          reportTime = currentTime;
-          processed = 0;
+      final ExecutorService metadataExecutor = metadataThreads > 0 ? Executors.newFixedThreadPool(metadataThreads) : null;
+      final ForkJoinPool importPool = importThreads > 0 ? new ForkJoinPool(importThreads) : null;
+      boolean completed = false;
+      try {
+        // Cache revisions are computed in parallel, but added strictly in revision order.
+        final Deque<ForkJoinTask<CacheRevision>> pending = new ArrayDeque<>();
+        final int firstRevision = revisions.size();
+        int next = newRevs.size() - 1;
+        for (int i = newRevs.size() - 1; i >= 0; i--) {
+          final CacheRevision cacheRevision;
+          if (importPool != null) {
+            for (; next >= 0 && pending.size() < importThreads * IMPORT_READAHEAD; next--) {
+              final RevCommit commit = newRevs.get(next);
+              final int revisionId = firstRevision + newRevs.size() - 1 - next;
+              pending.add(importPool.submit(() -> loadCacheRevision(commit, revisionId, metadataExecutor)));
+            }
+            cacheRevision = waitImport(pending.remove());
+          } else {
+            cacheRevision = loadCacheRevision(newRevs.get(i), revisions.size(), metadataExecutor);
+          }
+          addRevision(newRevs.get(i), cacheRevision);
+          processed++;
+          long currentTime = System.currentTimeMillis();
+          if (currentTime - reportTime > REPORT_DELAY) {
+            log.info("  processed cached revision: {} ({} rev/sec)", newRevs.size() - i, 1000.0f * processed / (currentTime - reportTime));
+            reportTime = currentTime;
+            processed = 0;
+            journal.flush();
+            if (revisions.size() >= keepPublished) {
+              publish();
+            }
+          }
+        }
+        completed = true;
+      } finally {
+        journal.flush();
+        if (completed || revisions.size() >= keepPublished) {
+          publish();
+        }
+        if (importPool != null) {
+          importPool.shutdownNow();
+        }
+        if (metadataExecutor != null) {
+          metadataExecutor.shutdownNow();
         }
       }
       final long endTime = System.currentTimeMillis();
       log.info("Cached revision loaded: {} ms", endTime - beginTime);
       return true;
-    } finally {
-      lock.writeLock().unlock();
     }
   }
 
+  /**
+   * Load revisions from journal on first update.
+   */
+  private void loadJournal() throws IOException {
+    if (journalLoaded) {
+      return;
+    }
+    int loaded;
+    try {
+      loaded = journal.load(revisions, history);
+    } catch (IOException | RuntimeException e) {
+      // Partially loaded journal is dropped, all revisions will be reloaded from cache commits.
+      log.warn("Can't load revision journal, it will be recreated", e);
+      revisions = new GitRevisionIndex();
+      history = new GitPathHistory();
+      journal.reset();
+      loaded = 0;
+    }
+    journalLoaded = true;
+    publish();
+    if (loaded > 0) {
+      log.info("Revisions loaded from journal: {}", loaded);
+    }
+  }
+
+  /**
+   * Publish imported revisions for readers.
+   */
+  private void publish() {
+    lastUpdates = history;
+    published = revisions.snapshot();
+  }
+
   private static class CacheInfo {
     private final int id;
     @NotNull
@@ -248,29 +373,23 @@ public class GitRepository implements VcsRepository {
    */
   public boolean cacheRevisions() throws IOException, SVNException {
     // Fast check.
-    lock.readLock().lock();
-    try {
-      final int lastRevision = revisions.size() - 1;
-      if (lastRevision >= 0) {
-        final ObjectId lastCommitId = revisions.get(lastRevision).getGitNewCommit();
-        final Ref master = repository.getRef(gitBranch);
-        if ((master == null) || (master.getObjectId().equals(lastCommitId))) {
-          return false;
-        }
+    final GitRevisionIndex snapshot = published;
+    if (snapshot.size() > 0) {
+      final ObjectId lastCommitId = snapshot.getGitCommit(snapshot.size() - 1);
+      final Ref master = repository.getRef(gitBranch);
+      if ((master == null) || (master.getObjectId().equals(lastCommitId))) {
+        return false;
       }
-    } finally {
-      lock.readLock().unlock();
     }
     // Real update.
     final ObjectInserter inserter = repository.newObjectInserter();
-    lock.writeLock().lock();
-    try {
+    synchronized (importLock) {
       final Ref master = repository.getRef(gitBranch);
       final List<RevCommit> newRevs = new ArrayList<>();
       final RevWalk revWalk = new RevWalk(repository);
       ObjectId objectId = master.getObjectId();
       while (true) {
-        if (revisionByHash.containsKey(objectId)) {
+        if (revisions.findByCommit(objectId) >= 0) {
           break;
         }
         final RevCommit commit = revWalk.parseCommit(objectId);
@@ -284,7 +403,7 @@ public class GitRepository implements VcsRepository {
         long reportTime = beginTime;
         log.info("Loading revision changes: {} revision", newRevs.size());
         int revisionId = revisions.size();
-        ObjectId cacheId = revisions.get(revisions.size() - 1).getCacheCommit();
+        ObjectId cacheId = revisions.getCacheCommit(revisions.size() - 1);
         for (int i = newRevs.size() - 1; i >= 0; i--) {
           final RevCommit revCommit = newRevs.get(i);
           cacheId = LayoutHelper.createCacheCommit(inserter, cacheId, revCommit, revisionId, Collections.emptyMap());
@@ -311,32 +430,103 @@ public class GitRepository implements VcsRepository {
         refUpdate.update();
       }
       return !newRevs.isEmpty();
-    } finally {
-      lock.writeLock().unlock();
     }
   }
 
-  private CacheRevision loadCacheRevision(@NotNull ObjectReader reader, @NotNull RevCommit newCommit, int revisionId) throws IOException, SVNException {
+  @NotNull
+  private static CacheRevision waitImport(@NotNull ForkJoinTask<CacheRevision> task) throws IOException, SVNException {
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      throw new InterruptedIOException();
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof SVNException) {
+        throw (SVNException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * Load or compute revision changes. Can be called concurrently for different revisions.
+   */
+  @NotNull
+  private CacheRevision loadCacheRevision(@NotNull RevCommit newCommit, int revisionId, @Nullable ExecutorService metadataExecutor) throws IOException, SVNException {
     final HTreeMap<String, byte[]> cache = context.getShared().getCacheDB().getHashMap("cache-revision");
     CacheRevision result = CacheRevision.deserialize(cache.get(newCommit.name()));
     if (result == null) {
-      final RevCommit baseCommit = LayoutHelper.loadOriginalCommit(reader, newCommit);
-      final GitFile oldTree = getSubversionTree(reader, newCommit.getParentCount() > 0 ? newCommit.getParent(0) : null, revisionId - 1);
-      final GitFile newTree = getSubversionTree(reader, newCommit, revisionId);
+      final RevCommit baseCommit;
+      final GitFile oldTree;
+      final GitFile newTree;
+      try (GitReaderPool.PooledReader reader = readers.acquire(repository)) {
+        baseCommit = LayoutHelper.loadOriginalCommit(reader.get(), newCommit);
+        oldTree = getSubversionTree(reader.get(), newCommit.getParentCount() > 0 ? newCommit.getParent(0) : null, revisionId - 1);
+        newTree = getSubversionTree(reader.get(), newCommit, revisionId);
+      }
       final Map<String, CacheChange> fileChange = new TreeMap<>();
-      for (Map.Entry<String, GitLogPair> entry : ChangeHelper.collectChanges(oldTree, newTree, true).entrySet()) {
+      final List<Future<?>> metadata = new ArrayList<>();
+      final Map<String, GitLogPair> changes = ChangeHelper.collectChanges(oldTree, newTree, true);
+      for (Map.Entry<String, GitLogPair> entry : changes.entrySet()) {
         fileChange.put(entry.getKey(), new CacheChange(entry.getValue()));
+        final GitFile newFile = entry.getValue().getNewEntry();
+        if (metadataExecutor != null && newFile != null && !newFile.isDirectory()) {
+          metadata.add(metadataExecutor.submit(() -> prefetchMetadata(newFile)));
+        }
       }
+      waitMetadata(metadata);
       result = new CacheRevision(
           baseCommit,
           collectRename(oldTree, newTree),
           fileChange
       );
+      if (baseCommit != null) {
+        // Log changes are stored now, while revision trees are loaded and compared.
+        try {
+          GitRevision.storeChanges(context.getShared().getCacheDB(), newCommit, revisionId, result.getRenames(), changes);
+        } catch (IOException | SVNException | RuntimeException e) {
+          // Log changes are computed on demand.
+          log.warn("Can't store log changes for revision: {}", revisionId, e);
+        }
+      }
       cache.put(newCommit.name(), CacheRevision.serialize(result));
     }
     return result;
   }
 
+  /**
+   * Compute and cache file md5, size and binary flag, so first checkout of new revision don't need to read blobs.
+   */
+  @Nullable
+  private Void prefetchMetadata(@NotNull GitFile file) throws IOException, SVNException {
+    final GitObject<ObjectId> objectId = file.getObjectId();
+    if (objectId != null) {
+      file.getMd5();
+      file.getSize();
+      isObjectBinary(file.getFilter(), objectId);
+    }
+    return null;
+  }
+
+  private static void waitMetadata(@NotNull List<Future<?>> metadata) throws IOException {
+    for (Future<?> future : metadata) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        throw new InterruptedIOException();
+      } catch (ExecutionException e) {
+        // Metadata will be computed on demand.
+        log.warn("Can't compute file metadata", e.getCause());
+      }
+    }
+  }
+
   @NotNull
   private GitFile getSubversionTree(@NotNull ObjectReader reader, @Nullable RevCommit commit, int revisionId) throws IOException, SVNException {
     final RevCommit revCommit = LayoutHelper.loadOriginalCommit(reader, commit);
@@ -347,54 +537,63 @@ public class GitRepository implements VcsRepository {
   }
 
   @Override
-  public void updateRevisions() throws IOException, SVNException {
+  public boolean updateRevisions() throws IOException, SVNException {
+    boolean changed = false;
     while (true) {
-      loadRevisions();
+      changed |= loadRevisions();
       if (!cacheRevisions()) {
         break;
       }
+      changed = true;
+    }
+    if (!changed) {
+      return false;
     }
     wrapLockWrite((lockManager) -> {
       lockManager.validateLocks();
       return Boolean.TRUE;
     });
     context.getShared().getCacheDB().commit();
+    return true;
+  }
+
+  @Override
+  public long getWarmupCost() throws IOException {
+    final GitRevisionIndex snapshot = published;
+    if (snapshot.size() > 0) {
+      final Ref head = repository.getRef(svnBranch);
+      final Ref master = repository.getRef(gitBranch);
+      if (head.getObjectId().equals(snapshot.getCacheCommit(snapshot.size() - 1))
+          && (master == null || master.getObjectId().equals(snapshot.getGitCommit(snapshot.size() - 1)))) {
+        return 0;
+      }
+    }
+    // Import time mostly depends on repository size.
+    long size = 1;
+    final File directory = repository.getDirectory();
+    final File[] packs = directory == null ? null : new File(directory, "objects/pack").listFiles((dir, name) -> name.endsWith(".pack"));
+    if (packs != null) {
+      for (File pack : packs) {
+        size += pack.length();
+      }
+    }
+    return size;
   }
 
   private boolean isTreeEmpty(RevTree tree) throws IOException {
-    return new CanonicalTreeParser(GitRepository.emptyBytes, repository.newObjectReader(), tree).eof();
+    try (GitReaderPool.PooledReader reader = readers.acquire(repository)) {
+      return new CanonicalTreeParser(GitRepository.emptyBytes, reader.get(), tree).eof();
+    }
   }
 
-  private void loadRevisionInfo(@NotNull RevCommit commit) throws IOException, SVNException {
-    final ObjectReader reader = repository.newObjectReader();
-    final CacheRevision cacheRevision = loadCacheRevision(reader, commit, revisions.size());
+  private void addRevision(@NotNull RevCommit commit, @NotNull CacheRevision cacheRevision) throws IOException {
     final int revisionId = revisions.size();
-    final Map<String, VcsCopyFrom> copyFroms = new HashMap<>();
-    for (Map.Entry<String, String> entry : cacheRevision.getRenames().entrySet()) {
-      copyFroms.put(entry.getKey(), new VcsCopyFrom(revisionId - 1, entry.getValue()));
-    }
-    final RevCommit oldCommit = revisions.isEmpty() ? null : revisions.get(revisions.size() - 1).getGitNewCommit();
-    final RevCommit svnCommit = cacheRevision.getGitCommitId() != null ? new RevWalk(reader).parseCommit(cacheRevision.getGitCommitId()) : null;
+    final long date = TimeUnit.SECONDS.toMillis(commit.getCommitTime());
+    journal.append(commit, cacheRevision.getGitCommitId(), date, cacheRevision.getRenames(), cacheRevision.getFileChange());
     for (Map.Entry<String, CacheChange> entry : cacheRevision.getFileChange().entrySet()) {
-      lastUpdates.compute(entry.getKey(), (key, list) -> {
-        final IntList result = list == null ? new IntList() : list;
-        result.add(revisionId);
-        if (entry.getValue().getNewFile() == null) {
-          result.add(MARK_NO_FILE);
-        }
-        return result;
-      });
-    }
-    final GitRevision revision = new GitRevision(this, commit.getId(), revisionId, copyFroms, oldCommit, svnCommit, commit.getCommitTime());
-    if (revision.getId() > 0) {
-      if (revisionByDate.isEmpty() || revisionByDate.lastKey() <= revision.getDate()) {
-        revisionByDate.put(revision.getDate(), revision);
-      }
+      history.add(entry.getKey(), revisionId, entry.getValue().getNewFile() == null);
     }
-    if (svnCommit != null) {
-      revisionByHash.put(svnCommit.getId(), revision);
-    }
-    revisions.add(revision);
+    revisions.add(commit, cacheRevision.getGitCommitId(), date, cacheRevision.getRenames());
   }
 
   @NotNull
@@ -497,27 +696,15 @@ public class GitRepository implements VcsRepository {
   @NotNull
   @Override
   public GitRevision getLatestRevision() throws IOException {
-    lock.readLock().lock();
-    try {
-      return revisions.get(revisions.size() - 1);
-    } finally {
-      lock.readLock().unlock();
-    }
+    final GitRevisionIndex snapshot = published;
+    return createRevision(snapshot, snapshot.size() - 1);
   }
 
   @NotNull
   @Override
   public VcsRevision getRevisionByDate(long dateTime) throws IOException {
-    lock.readLock().lock();
-    try {
-      final Map.Entry<Long, GitRevision> entry = revisionByDate.floorEntry(dateTime);
-      if (entry != null) {
-        return entry.getValue();
-      }
-      return revisions.get(0);
-    } finally {
-      lock.readLock().unlock();
-    }
+    final GitRevisionIndex snapshot = published;
+    return createRevision(snapshot, snapshot.findByDate(dateTime));
   }
 
   @NotNull
@@ -533,15 +720,42 @@ public class GitRepository implements VcsRepository {
 
   public boolean isObjectBinary(@Nullable GitFilter filter, @Nullable GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
     if (objectId == null || filter == null) return false;
-    final String key = filter.getName() + " " + objectId.getObject().name();
-    Boolean result = binaryCache.get(key);
-    if (result == null) {
-      try (InputStream stream = filter.inputStream(objectId)) {
-        result = SVNFileUtil.detectMimeType(stream) != null;
+    return GitFilterHelper.isBinary(filter, context.getShared().getCacheDB(), objectId);
+  }
+
+  @NotNull
+  private GitRevision createRevision(@NotNull GitRevisionIndex snapshot, int revision) {
+    final ObjectId cacheCommit = snapshot.getCacheCommit(revision);
+    // Revision numbers are reused after revision index reload, but cache commit identifies revision content.
+    final GitRevision cached = revisionCache.getIfPresent(revision);
+    if (cached != null && cached.getCacheCommit().equals(cacheCommit)) {
+      return cached;
+    }
+    final GitRevision result = new GitRevision(this,
+        cacheCommit,
+        revision,
+        snapshot.getRenames(revision),
+        revision > 0 ? snapshot.getGitCommit(revision - 1) : null,
+        snapshot.getGitCommit(revision),
+        snapshot.getDate(revision)
+    );
+    revisionCache.put(revision, result);
+    return result;
+  }
+
+  /**
+   * Load commit object. Recently used commits are cached.
+   */
+  @NotNull
+  public RevCommit loadCommit(@NotNull ObjectId commitId) throws IOException {
+    try {
+      return commitCache.get(commitId, () -> new RevWalk(repository).parseCommit(commitId));
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
       }
-      binaryCache.putIfAbsent(key, result);
+      throw new IllegalStateException(e);
     }
-    return result;
   }
 
   @NotNull
@@ -565,28 +779,20 @@ public class GitRepository implements VcsRepository {
 
   @Nullable
   private GitRevision getRevisionInfoUnsafe(int revision) throws IOException {
-    lock.readLock().lock();
-    try {
-      if (revision >= revisions.size())
-        return null;
-      return revisions.get(revision);
-    } finally {
-      lock.readLock().unlock();
-    }
+    final GitRevisionIndex snapshot = published;
+    if (revision >= snapshot.size())
+      return null;
+    return createRevision(snapshot, revision);
   }
 
   @NotNull
   public GitRevision getRevision(@NotNull ObjectId revisionId) throws SVNException {
-    lock.readLock().lock();
-    try {
-      final GitRevision revision = revisionByHash.get(revisionId);
-      if (revision == null) {
-        throw new SVNException(SVNErrorMessage.create(SVNErrorCode.FS_NO_SUCH_REVISION, "No such revision " + revisionId.name()));
-      }
-      return revision;
-    } finally {
-      lock.readLock().unlock();
+    final GitRevisionIndex snapshot = published;
+    final int revision = snapshot.findByCommit(revisionId);
+    if (revision < 0) {
+      throw new SVNException(SVNErrorMessage.create(SVNErrorCode.FS_NO_SUCH_REVISION, "No such revision " + revisionId.name()));
     }
+    return createRevision(snapshot, revision);
   }
 
   @NotNull
@@ -601,48 +807,48 @@ public class GitRepository implements VcsRepository {
   @Override
   public int getLastChange(@NotNull String nodePath, int beforeRevision) {
     if (nodePath.isEmpty()) return beforeRevision;
-    final IntList revs = this.lastUpdates.get(nodePath);
-    if (revs != null) {
-      int prev = 0;
-      for (int i = revs.size() - 1; i >= 0; --i) {
-        final int rev = revs.get(i);
-        if ((rev >= 0) && (rev <= beforeRevision)) {
-          if (prev == MARK_NO_FILE) {
-            return MARK_NO_FILE;
-          }
-          return rev;
-        }
-        prev = rev;
-      }
+    return lastUpdates.getLastChange(nodePath, beforeRevision);
+  }
+
+  @Override
+  public int getFirstChange(@NotNull String nodePath, int beforeRevision) {
+    if (nodePath.isEmpty()) return beforeRevision < 0 ? -1 : 0;
+    return lastUpdates.getFirstChange(nodePath, beforeRevision);
+  }
+
+  @Override
+  public int getNextChange(@NotNull String nodePath, int afterRevision) {
+    if (nodePath.isEmpty()) return afterRevision + 1;
+    return lastUpdates.getNextChange(nodePath, afterRevision);
+  }
+
+  @Nullable
+  @Override
+  public VcsCopyFrom getCopyFrom(@NotNull String nodePath, int revision) {
+    final GitRevisionIndex snapshot = published;
+    if (revision < 0 || revision >= snapshot.size()) {
+      return null;
     }
-    return MARK_NO_FILE;
+    final String oldPath = snapshot.getRenames(revision).get(nodePath);
+    return oldPath == null ? null : new VcsCopyFrom(revision - 1, oldPath);
   }
 
   @NotNull
-  public static String loadContent(@NotNull GitObject<? extends ObjectId> objectId) throws IOException {
-    final byte[] bytes = objectId.getRepo().newObjectReader().open(objectId.getObject()).getBytes();
-    return new String(bytes, StandardCharsets.UTF_8);
+  public String loadContent(@NotNull GitObject<? extends ObjectId> objectId) throws IOException {
+    try (GitReaderPool.PooledReader reader = readers.acquire(objectId.getRepo())) {
+      final byte[] bytes = reader.get().open(objectId.getObject()).getBytes();
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
   }
 
   @NotNull
-  public Iterable<GitTreeEntry> loadTree(@Nullable GitTreeEntry tree) throws IOException {
+  public List<GitTreeEntry> loadTree(@Nullable GitTreeEntry tree) throws IOException {
     final GitObject<ObjectId> treeId = getTreeObject(tree);
     // Loading tree.
     if (treeId == null) {
       return Collections.emptyList();
     }
-    final List<GitTreeEntry> result = new ArrayList<>();
-    final Repository repo = treeId.getRepo();
-    final CanonicalTreeParser treeParser = new CanonicalTreeParser(GitRepository.emptyBytes, repo.newObjectReader(), treeId.getObject());
-    while (!treeParser.eof()) {
-      result.add(new GitTreeEntry(
-          treeParser.getEntryFileMode(),
-          new GitObject<>(repo, treeParser.getEntryObjectId()),
-          treeParser.getEntryPathString()
-      ));
-      treeParser.next();
-    }
-    return result;
+    return treeCache.load(readers, treeId.getRepo(), treeId.getObject());
   }
 
   @Nullable
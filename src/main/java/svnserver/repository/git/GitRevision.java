@@ -7,23 +7,26 @@
  */
 package svnserver.repository.git;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.PersonIdent;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.mapdb.DB;
+import org.mapdb.HTreeMap;
 import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.SVNRevisionProperty;
+import svnserver.StringHelper;
 import svnserver.SvnConstants;
 import svnserver.repository.VcsCopyFrom;
 import svnserver.repository.VcsRevision;
+import svnserver.repository.git.cache.CacheLogEntry;
+import svnserver.repository.git.cache.CacheLogRevision;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.TreeMap;
-import java.util.concurrent.TimeUnit;
+import java.util.*;
 
 /**
  * Git revision.
@@ -31,34 +34,46 @@ import java.util.concurrent.TimeUnit;
  * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
  */
 public final class GitRevision implements VcsRevision {
+  private static final int FILE_CACHE_SIZE = 1024;
+  @NotNull
+  private static final String LOG_CACHE_NAME = "cache-log";
+
   @NotNull
   private final GitRepository repo;
   @NotNull
   private final ObjectId cacheCommit;
   @Nullable
-  private final RevCommit gitOldCommit;
+  private final ObjectId gitOldCommit;
   @Nullable
-  private final RevCommit gitNewCommit;
+  private final ObjectId gitNewCommit;
 
   @NotNull
-  private final Map<String, VcsCopyFrom> renames;
+  private final Map<String, String> renames;
   private final long date;
   private final int revision;
+  // Resolved files by normalized path (without leading and trailing slashes).
+  @NotNull
+  private final Cache<String, Optional<GitFileTreeEntry>> fileCache = CacheBuilder.newBuilder()
+      .maximumSize(FILE_CACHE_SIZE)
+      .build();
+  // Changed paths for log (computed once and stored in cache database).
+  @Nullable
+  private volatile Map<String, CacheLogEntry> changes;
 
   public GitRevision(@NotNull GitRepository repo,
                      @NotNull ObjectId cacheCommit,
                      int revision,
-                     @NotNull Map<String, VcsCopyFrom> renames,
-                     @Nullable RevCommit gitOldCommit,
-                     @Nullable RevCommit gitNewCommit,
-                     int commitTimeSec) {
+                     @NotNull Map<String, String> renames,
+                     @Nullable ObjectId gitOldCommit,
+                     @Nullable ObjectId gitNewCommit,
+                     long date) {
     this.repo = repo;
     this.cacheCommit = cacheCommit;
     this.revision = revision;
     this.renames = renames;
     this.gitOldCommit = gitOldCommit;
     this.gitNewCommit = gitNewCommit;
-    this.date = TimeUnit.SECONDS.toMillis(commitTimeSec);
+    this.date = date;
   }
 
   @NotNull
@@ -72,29 +87,143 @@ public final class GitRevision implements VcsRevision {
   }
 
   @Nullable
-  public RevCommit getGitNewCommit() {
+  public ObjectId getGitNewCommitId() {
     return gitNewCommit;
   }
 
+  @Nullable
+  public RevCommit getGitNewCommit() throws IOException {
+    return gitNewCommit == null ? null : repo.loadCommit(gitNewCommit);
+  }
+
   @NotNull
   @Override
-  public Map<String, GitLogEntry> getChanges() throws IOException, SVNException {
+  public Map<String, CacheLogEntry> getChanges() throws IOException, SVNException {
     if (gitNewCommit == null) {
       return Collections.emptyMap();
     }
-    final GitFile oldTree = gitOldCommit == null ? new GitFileEmptyTree(repo, "", revision - 1) : GitFileTreeEntry.create(repo, gitOldCommit.getTree(), revision - 1);
-    final GitFile newTree = GitFileTreeEntry.create(repo, gitNewCommit.getTree(), revision);
+    Map<String, CacheLogEntry> result = changes;
+    if (result == null) {
+      final HTreeMap<String, byte[]> cache = repo.getContext().getShared().getCacheDB().getHashMap(LOG_CACHE_NAME);
+      CacheLogRevision logRevision = CacheLogRevision.deserialize(cache.get(cacheCommit.name()));
+      if (logRevision == null) {
+        // Log changes are usually stored on revision import, this is fallback for previously imported revisions.
+        logRevision = createLogRevision(collectChanges(), getCopyFroms(renames, revision));
+        cache.put(cacheCommit.name(), CacheLogRevision.serialize(logRevision));
+      } else if (!isResolved(logRevision)) {
+        logRevision = resolveLogRevision(logRevision);
+        cache.put(cacheCommit.name(), CacheLogRevision.serialize(logRevision));
+      }
+      result = logRevision.getChanges();
+      changes = result;
+    }
+    return result;
+  }
 
-    final Map<String, GitLogEntry> changes = new TreeMap<>();
-    for (Map.Entry<String, GitLogPair> entry : ChangeHelper.collectChanges(oldTree, newTree, false).entrySet()) {
-      changes.put(entry.getKey(), new GitLogEntry(entry.getValue(), renames));
+  private static boolean isResolved(@NotNull CacheLogRevision logRevision) {
+    for (CacheLogEntry logEntry : logRevision.getChanges().values()) {
+      if (!logEntry.isResolved()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Compute content and property modification flags, which were not computed on revision import.
+   */
+  @NotNull
+  private CacheLogRevision resolveLogRevision(@NotNull CacheLogRevision logRevision) throws IOException, SVNException {
+    final GitRevision oldRevision = repo.getRevisionInfo(revision - 1);
+    final Map<String, VcsCopyFrom> copyFroms = getCopyFroms(renames, revision);
+    final Map<String, CacheLogEntry> result = new TreeMap<>();
+    for (Map.Entry<String, CacheLogEntry> entry : logRevision.getChanges().entrySet()) {
+      CacheLogEntry logEntry = entry.getValue();
+      if (!logEntry.isResolved()) {
+        final GitLogPair pair = new GitLogPair(oldRevision.getFile(entry.getKey()), getFile(entry.getKey()));
+        logEntry = new CacheLogEntry(new GitLogEntry(pair, copyFroms));
+      }
+      result.put(entry.getKey(), logEntry);
+    }
+    return new CacheLogRevision(result);
+  }
+
+  @NotNull
+  private Map<String, GitLogPair> collectChanges() throws IOException, SVNException {
+    assert gitNewCommit != null;
+    final GitFile oldTree = gitOldCommit == null ? new GitFileEmptyTree(repo, "", revision - 1) : GitFileTreeEntry.create(repo, repo.loadCommit(gitOldCommit).getTree(), revision - 1);
+    final GitFile newTree = GitFileTreeEntry.create(repo, repo.loadCommit(gitNewCommit).getTree(), revision);
+    return ChangeHelper.collectChanges(oldTree, newTree, false);
+  }
+
+  /**
+   * Store changed paths for log on revision import, while revision trees are already compared.
+   *
+   * @param cacheDb     Cache database.
+   * @param cacheCommit Revision cache commit.
+   * @param revision    Revision number.
+   * @param renames     Revision renames.
+   * @param changes     Changes between revision trees (content of removed directories is ignored).
+   */
+  static void storeChanges(@NotNull DB cacheDb, @NotNull ObjectId cacheCommit, int revision, @NotNull Map<String, String> renames, @NotNull Map<String, GitLogPair> changes) throws IOException, SVNException {
+    final Map<String, GitLogPair> logChanges = new HashMap<>();
+    for (Map.Entry<String, GitLogPair> entry : changes.entrySet()) {
+      final GitLogPair parent = changes.get(StringHelper.parentDir(entry.getKey()));
+      if (parent != null && isDirectoryRemoved(parent)) {
+        continue;
+      }
+      logChanges.put(entry.getKey(), entry.getValue());
+    }
+    final Map<String, VcsCopyFrom> copyFroms = getCopyFroms(renames, revision);
+    final Map<String, CacheLogEntry> result = new TreeMap<>();
+    for (Map.Entry<String, GitLogPair> entry : logChanges.entrySet()) {
+      final CacheLogEntry logEntry = createImportLogEntry(entry.getValue(), copyFroms);
+      if (logEntry.getChange() != 0) {
+        result.put(entry.getKey(), logEntry);
+      }
     }
-    return changes;
+    final HTreeMap<String, byte[]> cache = cacheDb.getHashMap(LOG_CACHE_NAME);
+    cache.put(cacheCommit.name(), CacheLogRevision.serialize(new CacheLogRevision(result)));
+  }
+
+  /**
+   * Create log entry without blob content reading: flags, which depend on file content and filters,
+   * are resolved on first log request.
+   */
+  @NotNull
+  private static CacheLogEntry createImportLogEntry(@NotNull GitLogPair pair, @NotNull Map<String, VcsCopyFrom> copyFroms) throws IOException, SVNException {
+    final GitLogEntry logEntry = new GitLogEntry(pair, copyFroms);
+    final GitFile oldEntry = pair.getOldEntry();
+    final GitFile newEntry = pair.getNewEntry();
+    if (oldEntry == null || newEntry == null || (oldEntry.isDirectory() && newEntry.isDirectory())) {
+      // Added, removed and directory entries don't need blob content.
+      return new CacheLogEntry(logEntry);
+    }
+    // Change type is computed by the same check as revision import change detection.
+    return CacheLogEntry.unresolved(logEntry.getChange(), logEntry.getKind(), logEntry.isModified(), logEntry.getCopyFrom());
+  }
+
+  private static boolean isDirectoryRemoved(@NotNull GitLogPair pair) {
+    final GitFile oldEntry = pair.getOldEntry();
+    final GitFile newEntry = pair.getNewEntry();
+    return oldEntry != null && oldEntry.isDirectory() && (newEntry == null || !newEntry.isDirectory());
+  }
+
+  @NotNull
+  private static CacheLogRevision createLogRevision(@NotNull Map<String, GitLogPair> changes, @NotNull Map<String, VcsCopyFrom> copyFroms) throws IOException, SVNException {
+    final Map<String, CacheLogEntry> result = new TreeMap<>();
+    for (Map.Entry<String, GitLogPair> entry : changes.entrySet()) {
+      final CacheLogEntry logEntry = new CacheLogEntry(new GitLogEntry(entry.getValue(), copyFroms));
+      if (logEntry.getChange() != 0) {
+        result.put(entry.getKey(), logEntry);
+      }
+    }
+    return new CacheLogRevision(result);
   }
 
   @NotNull
   @Override
-  public Map<String, String> getProperties(boolean includeInternalProps) {
+  public Map<String, String> getProperties(boolean includeInternalProps) throws IOException {
     final Map<String, String> props = new HashMap<>();
     if (includeInternalProps) {
       putProperty(props, SVNRevisionProperty.AUTHOR, getAuthor());
@@ -120,18 +249,18 @@ public final class GitRevision implements VcsRevision {
 
   @Nullable
   @Override
-  public String getAuthor() {
+  public String getAuthor() throws IOException {
     if (gitNewCommit == null)
       return null;
 
-    final PersonIdent ident = gitNewCommit.getAuthorIdent();
+    final PersonIdent ident = repo.loadCommit(gitNewCommit).getAuthorIdent();
     return String.format("%s <%s>", ident.getName(), ident.getEmailAddress());
   }
 
   @Nullable
   @Override
-  public String getLog() {
-    return gitNewCommit == null ? null : gitNewCommit.getFullMessage().trim();
+  public String getLog() throws IOException {
+    return gitNewCommit == null ? null : repo.loadCommit(gitNewCommit).getFullMessage().trim();
   }
 
   @Nullable
@@ -140,22 +269,66 @@ public final class GitRevision implements VcsRevision {
     if (gitNewCommit == null) {
       return new GitFileEmptyTree(repo, "", revision);
     }
-    GitFile result = GitFileTreeEntry.create(repo, gitNewCommit.getTree(), revision);
+    final StringBuilder path = new StringBuilder();
     for (String pathItem : fullPath.split("/")) {
       if (pathItem.isEmpty()) {
         continue;
       }
-      result = result.getEntry(pathItem);
-      if (result == null) {
-        return null;
+      if (path.length() > 0) {
+        path.append('/');
       }
+      path.append(pathItem);
+    }
+    return findFile(path.toString());
+  }
+
+  /**
+   * Resolve file by normalized path. Path is resolved from nearest cached parent directory.
+   * <p>
+   * Cached entries are never returned directly: caller gets a copy, so child entries materialized
+   * by caller (for example, by recursive {@link GitFile#getEntries()}) are not retained by cache.
+   */
+  @Nullable
+  private GitFile findFile(@NotNull String path) throws IOException, SVNException {
+    final GitFileTreeEntry result = findCachedFile(path);
+    return result == null ? null : result.copy();
+  }
+
+  @Nullable
+  private GitFileTreeEntry findCachedFile(@NotNull String path) throws IOException, SVNException {
+    final Optional<GitFileTreeEntry> cached = fileCache.getIfPresent(path);
+    if (cached != null) {
+      return cached.orElse(null);
+    }
+    final GitFileTreeEntry result;
+    if (path.isEmpty()) {
+      //noinspection ConstantConditions
+      result = GitFileTreeEntry.create(repo, repo.loadCommit(gitNewCommit).getTree(), revision);
+    } else {
+      final int separator = path.lastIndexOf('/');
+      final GitFileTreeEntry parent = findCachedFile(separator < 0 ? "" : path.substring(0, separator));
+      result = parent == null ? null : parent.getEntry(path.substring(separator + 1));
     }
+    fileCache.put(path, Optional.ofNullable(result));
     return result;
   }
 
   @Nullable
   @Override
   public VcsCopyFrom getCopyFrom(@NotNull String fullPath) {
-    return renames.get(fullPath);
+    final String oldPath = renames.get(fullPath);
+    return oldPath == null ? null : new VcsCopyFrom(revision - 1, oldPath);
+  }
+
+  @NotNull
+  private static Map<String, VcsCopyFrom> getCopyFroms(@NotNull Map<String, String> renames, int revision) {
+    if (renames.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    final Map<String, VcsCopyFrom> result = new HashMap<>();
+    for (Map.Entry<String, String> entry : renames.entrySet()) {
+      result.put(entry.getKey(), new VcsCopyFrom(revision - 1, entry.getValue()));
+    }
+    return result;
   }
 }
@@ -0,0 +1,261 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Compact revision index.
+ * <p>
+ * Revision data is stored in parallel primitive arrays, git commit to revision mapping
+ * is open-addressing hash table over the same arrays. Commit objects are not retained.
+ * <p>
+ * Index is modified only by revision import. All arrays are append-only: stored values are never
+ * changed and grown arrays are copies, so {@link #snapshot()} shares arrays with index and readers
+ * of snapshot use plain array loads without locks. Snapshot should be published via volatile field.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+final class GitRevisionIndex {
+  private static final int ID_LENGTH = Constants.OBJECT_ID_LENGTH;
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final int NO_REVISION = -1;
+
+  private final boolean readOnly;
+  private int size = 0;
+  @NotNull
+  private byte[] cacheCommits = new byte[INITIAL_CAPACITY * ID_LENGTH];
+  @NotNull
+  private byte[] gitCommits = new byte[INITIAL_CAPACITY * ID_LENGTH];
+  @NotNull
+  private boolean[] hasGitCommit = new boolean[INITIAL_CAPACITY];
+  @NotNull
+  private long[] dates = new long[INITIAL_CAPACITY];
+  @NotNull
+  private Object[] renames = new Object[INITIAL_CAPACITY];
+
+  // Revisions with non-decreasing dates for search by date. Equal dates are stored as separate entries.
+  private int dateCount = 0;
+  @NotNull
+  private long[] dateKeys = new long[INITIAL_CAPACITY];
+  @NotNull
+  private int[] dateRevisions = new int[INITIAL_CAPACITY];
+
+  // Git commit to revision: revision + 1, zero - empty slot. Slots are filled only once,
+  // so snapshot ignores slots with revisions after it was created.
+  private int hashCount = 0;
+  @NotNull
+  private int[] hashTable = new int[INITIAL_CAPACITY * 2];
+
+  public GitRevisionIndex() {
+    readOnly = false;
+  }
+
+  private GitRevisionIndex(@NotNull GitRevisionIndex source) {
+    readOnly = true;
+    size = source.size;
+    cacheCommits = source.cacheCommits;
+    gitCommits = source.gitCommits;
+    hasGitCommit = source.hasGitCommit;
+    dates = source.dates;
+    renames = source.renames;
+    dateCount = source.dateCount;
+    dateKeys = source.dateKeys;
+    dateRevisions = source.dateRevisions;
+    hashCount = source.hashCount;
+    hashTable = source.hashTable;
+  }
+
+  /**
+   * Create read-only view of current index state. Doesn't copy data.
+   */
+  @NotNull
+  public GitRevisionIndex snapshot() {
+    return new GitRevisionIndex(this);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Add revision.
+   *
+   * @param cacheCommit Cache commit.
+   * @param gitCommit   Original git commit.
+   * @param date        Revision date in milliseconds.
+   * @param renames     Renamed paths (new path to old path).
+   * @return Revision number.
+   */
+  public int add(@NotNull AnyObjectId cacheCommit, @Nullable AnyObjectId gitCommit, long date, @NotNull Map<String, String> renames) {
+    if (readOnly) {
+      throw new IllegalStateException("Can't modify index snapshot");
+    }
+    final int revision = size;
+    if (revision == dates.length) {
+      final int capacity = revision * 2;
+      cacheCommits = Arrays.copyOf(cacheCommits, capacity * ID_LENGTH);
+      gitCommits = Arrays.copyOf(gitCommits, capacity * ID_LENGTH);
+      hasGitCommit = Arrays.copyOf(hasGitCommit, capacity);
+      dates = Arrays.copyOf(dates, capacity);
+      this.renames = Arrays.copyOf(this.renames, capacity);
+    }
+    cacheCommit.copyRawTo(cacheCommits, revision * ID_LENGTH);
+    if (gitCommit != null) {
+      gitCommit.copyRawTo(gitCommits, revision * ID_LENGTH);
+      hasGitCommit[revision] = true;
+    }
+    dates[revision] = date;
+    this.renames[revision] = renames.isEmpty() ? Collections.emptyMap() : renames;
+    size++;
+
+    if (revision > 0) {
+      addDate(revision, date);
+    }
+    if (gitCommit != null) {
+      addHash(revision);
+    }
+    return revision;
+  }
+
+  @NotNull
+  public ObjectId getCacheCommit(int revision) {
+    checkRevision(revision);
+    return ObjectId.fromRaw(cacheCommits, revision * ID_LENGTH);
+  }
+
+  @Nullable
+  public ObjectId getGitCommit(int revision) {
+    checkRevision(revision);
+    return hasGitCommit[revision] ? ObjectId.fromRaw(gitCommits, revision * ID_LENGTH) : null;
+  }
+
+  public long getDate(int revision) {
+    checkRevision(revision);
+    return dates[revision];
+  }
+
+  @NotNull
+  public Map<String, String> getRenames(int revision) {
+    checkRevision(revision);
+    //noinspection unchecked
+    return (Map<String, String>) renames[revision];
+  }
+
+  /**
+   * Find revision by original git commit.
+   *
+   * @return Revision number or -1, if commit is not found.
+   */
+  public int findByCommit(@NotNull AnyObjectId gitCommit) {
+    final int[] table = hashTable;
+    final int mask = table.length - 1;
+    // Same commit can be mapped to several revisions: last visible revision wins.
+    int result = NO_REVISION;
+    for (int slot = hashCode(gitCommit) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+      final int revision = table[slot] - 1;
+      // Slots filled after snapshot was created are skipped by this snapshot.
+      if (revision < size && revision > result && isCommit(revision, gitCommit)) {
+        result = revision;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Find last revision created before or at given time.
+   *
+   * @return Revision number or 0, if all revisions are newer.
+   */
+  public int findByDate(long date) {
+    int low = 0;
+    int high = dateCount - 1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      if (dateKeys[mid] <= date) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return high >= 0 ? dateRevisions[high] : 0;
+  }
+
+  private void checkRevision(int revision) {
+    if (revision < 0 || revision >= size) {
+      throw new IndexOutOfBoundsException("No such revision " + revision);
+    }
+  }
+
+  private void addDate(int revision, long date) {
+    if (dateCount > 0 && dateKeys[dateCount - 1] > date) {
+      return;
+    }
+    if (dateCount == dateKeys.length) {
+      dateKeys = Arrays.copyOf(dateKeys, dateCount * 2);
+      dateRevisions = Arrays.copyOf(dateRevisions, dateCount * 2);
+    }
+    dateKeys[dateCount] = date;
+    dateRevisions[dateCount] = revision;
+    dateCount++;
+  }
+
+  private void addHash(int revision) {
+    // Repeated commit is added as new slot instead of slot update, so snapshots still find previous revision.
+    if ((hashCount + 1) * 2 > hashTable.length) {
+      // Rehash to new table: old table can be used by snapshots.
+      final int[] oldTable = hashTable;
+      final int[] newTable = new int[oldTable.length * 2];
+      for (int value : oldTable) {
+        if (value != 0) {
+          insertHash(newTable, value - 1);
+        }
+      }
+      hashTable = newTable;
+    }
+    insertHash(hashTable, revision);
+    hashCount++;
+  }
+
+  private void insertHash(@NotNull int[] table, int revision) {
+    final int mask = table.length - 1;
+    int slot = hashCode(revision) & mask;
+    while (table[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    table[slot] = revision + 1;
+  }
+
+  // Slot hash of commit id: bytes 4-7 of id. Lookup and insert should use the same bytes.
+  private static int hashCode(@NotNull AnyObjectId id) {
+    return (id.getByte(4) & 0xFF) << 24
+        | (id.getByte(5) & 0xFF) << 16
+        | (id.getByte(6) & 0xFF) << 8
+        | (id.getByte(7) & 0xFF);
+  }
+
+  private int hashCode(int revision) {
+    final int offset = revision * ID_LENGTH + 4;
+    return (gitCommits[offset] & 0xFF) << 24
+        | (gitCommits[offset + 1] & 0xFF) << 16
+        | (gitCommits[offset + 2] & 0xFF) << 8
+        | (gitCommits[offset + 3] & 0xFF);
+  }
+
+  private boolean isCommit(int revision, @NotNull AnyObjectId gitCommit) {
+    return gitCommit.compareTo(gitCommits, revision * ID_LENGTH) == 0;
+  }
+}
@@ -0,0 +1,270 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import svnserver.repository.git.cache.CacheChange;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of loaded revisions.
+ * <p>
+ * Every record contains data for revision index and path history, so on startup indexes are
+ * restored from memory-mapped journal and only revisions after last journal record are loaded
+ * from cache commits. Every record has checksum: incomplete or damaged tail (after crash) is dropped.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+final class GitRevisionJournal implements Closeable {
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(GitRevisionJournal.class);
+  private static final int MAGIC = 0x47535649; // GSVI
+  private static final int VERSION = 2;
+  private static final int HEADER_SIZE = 8;
+  // Record length and CRC32 of record data.
+  private static final int RECORD_HEADER_SIZE = 8;
+  private static final int FLAG_GIT_COMMIT = 1;
+  private static final int FLAG_DELETED = 1;
+
+  @Nullable
+  private final File file;
+  @Nullable
+  private DataOutputStream output;
+
+  /**
+   * Create journal.
+   *
+   * @param file Journal file (null - journal is disabled).
+   */
+  public GitRevisionJournal(@Nullable File file) {
+    this.file = file;
+  }
+
+  /**
+   * Load journal content into indexes.
+   *
+   * @return Loaded revision count.
+   */
+  public int load(@NotNull GitRevisionIndex revisions, @NotNull GitPathHistory history) throws IOException {
+    if (file == null || !file.exists()) {
+      return 0;
+    }
+    final long validSize;
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      final FileChannel channel = raf.getChannel();
+      final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        log.warn("Revision journal {} has unknown format, it will be recreated", file);
+        validSize = 0;
+      } else {
+        validSize = replay(buffer, revisions, history);
+      }
+      if (validSize < channel.size()) {
+        if (validSize > 0) {
+          log.warn("Revision journal {} has incomplete or damaged tail, truncated to {} bytes", file, validSize);
+        }
+        channel.truncate(validSize);
+      }
+    }
+    return revisions.size();
+  }
+
+  private long replay(@NotNull MappedByteBuffer buffer, @NotNull GitRevisionIndex revisions, @NotNull GitPathHistory history) {
+    long validSize = buffer.position();
+    while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+      final int length = buffer.getInt();
+      final int checksum = buffer.getInt();
+      if (length < 0 || length > buffer.remaining()) {
+        break;
+      }
+      final byte[] data = new byte[length];
+      buffer.get(data);
+      // Any damaged record is end of valid journal data.
+      final Record record;
+      try {
+        record = checksum(data) == checksum ? readRecord(data) : null;
+      } catch (IOException | RuntimeException e) {
+        break;
+      }
+      if (record == null) {
+        break;
+      }
+      record.apply(revisions, history);
+      validSize = buffer.position();
+    }
+    return validSize;
+  }
+
+  @NotNull
+  private static Record readRecord(@NotNull byte[] data) throws IOException {
+    final DataInputStream input = new DataInputStream(new ByteArrayInputStream(data));
+    final ObjectId cacheCommit = readObjectId(input);
+    final int flags = input.readUnsignedByte();
+    final ObjectId gitCommit = (flags & FLAG_GIT_COMMIT) != 0 ? readObjectId(input) : null;
+    final long date = input.readLong();
+    final int renameCount = readCount(input, data.length);
+    final Map<String, String> renames = renameCount == 0 ? Collections.emptyMap() : new HashMap<>();
+    for (int i = 0; i < renameCount; ++i) {
+      renames.put(input.readUTF(), input.readUTF());
+    }
+    final int changeCount = readCount(input, data.length);
+    final String[] paths = new String[changeCount];
+    final boolean[] deleted = new boolean[changeCount];
+    for (int i = 0; i < changeCount; ++i) {
+      paths[i] = input.readUTF();
+      deleted[i] = (input.readUnsignedByte() & FLAG_DELETED) != 0;
+    }
+    return new Record(cacheCommit, gitCommit, date, renames, paths, deleted);
+  }
+
+  private static int readCount(@NotNull DataInputStream input, int limit) throws IOException {
+    final int count = input.readInt();
+    if (count < 0 || count > limit) {
+      throw new IOException("Invalid item count: " + count);
+    }
+    return count;
+  }
+
+  private static int checksum(@NotNull byte[] data) {
+    final CRC32 crc = new CRC32();
+    crc.update(data, 0, data.length);
+    return (int) crc.getValue();
+  }
+
+  /**
+   * Append revision record. Data is written to disk on {@link #flush()}.
+   */
+  public void append(@NotNull AnyObjectId cacheCommit, @Nullable AnyObjectId gitCommit, long date, @NotNull Map<String, String> renames, @NotNull Map<String, CacheChange> changes) throws IOException {
+    if (file == null) {
+      return;
+    }
+    final ByteArrayOutputStream record = new ByteArrayOutputStream();
+    final DataOutputStream stream = new DataOutputStream(record);
+    writeObjectId(stream, cacheCommit);
+    stream.writeByte(gitCommit != null ? FLAG_GIT_COMMIT : 0);
+    if (gitCommit != null) {
+      writeObjectId(stream, gitCommit);
+    }
+    stream.writeLong(date);
+    stream.writeInt(renames.size());
+    for (Map.Entry<String, String> entry : renames.entrySet()) {
+      stream.writeUTF(entry.getKey());
+      stream.writeUTF(entry.getValue());
+    }
+    stream.writeInt(changes.size());
+    for (Map.Entry<String, CacheChange> entry : changes.entrySet()) {
+      stream.writeUTF(entry.getKey());
+      stream.writeByte(entry.getValue().getNewFile() == null ? FLAG_DELETED : 0);
+    }
+    stream.flush();
+
+    final byte[] data = record.toByteArray();
+    final DataOutputStream out = getOutput();
+    out.writeInt(data.length);
+    out.writeInt(checksum(data));
+    out.write(data);
+  }
+
+  public void flush() throws IOException {
+    if (output != null) {
+      output.flush();
+    }
+  }
+
+  /**
+   * Drop journal content.
+   */
+  public void reset() throws IOException {
+    close();
+    if (file != null && file.exists() && !file.delete()) {
+      throw new IOException("Can't remove revision journal: " + file);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (output != null) {
+      output.close();
+      output = null;
+    }
+  }
+
+  @NotNull
+  private DataOutputStream getOutput() throws IOException {
+    if (output == null) {
+      assert file != null;
+      final File parent = file.getParentFile();
+      if (parent != null && !parent.exists() && !parent.mkdirs()) {
+        throw new IOException("Can't create directory: " + parent);
+      }
+      final boolean created = !file.exists() || file.length() == 0;
+      output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+      if (created) {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+      }
+    }
+    return output;
+  }
+
+  @NotNull
+  private static ObjectId readObjectId(@NotNull DataInputStream input) throws IOException {
+    final byte[] raw = new byte[Constants.OBJECT_ID_LENGTH];
+    input.readFully(raw);
+    return ObjectId.fromRaw(raw);
+  }
+
+  private static void writeObjectId(@NotNull DataOutputStream output, @NotNull AnyObjectId objectId) throws IOException {
+    final byte[] raw = new byte[Constants.OBJECT_ID_LENGTH];
+    objectId.copyRawTo(raw, 0);
+    output.write(raw);
+  }
+
+  private static final class Record {
+    @NotNull
+    private final ObjectId cacheCommit;
+    @Nullable
+    private final ObjectId gitCommit;
+    private final long date;
+    @NotNull
+    private final Map<String, String> renames;
+    @NotNull
+    private final String[] paths;
+    @NotNull
+    private final boolean[] deleted;
+
+    private Record(@NotNull ObjectId cacheCommit, @Nullable ObjectId gitCommit, long date, @NotNull Map<String, String> renames, @NotNull String[] paths, @NotNull boolean[] deleted) {
+      this.cacheCommit = cacheCommit;
+      this.gitCommit = gitCommit;
+      this.date = date;
+      this.renames = renames;
+      this.paths = paths;
+      this.deleted = deleted;
+    }
+
+    private void apply(@NotNull GitRevisionIndex revisions, @NotNull GitPathHistory history) {
+      final int revision = revisions.add(cacheCommit, gitCommit, date, renames);
+      for (int i = 0; i < paths.length; ++i) {
+        history.add(paths[i], revision, deleted[i]);
+      }
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.http.annotation.ThreadSafe;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.jetbrains.annotations.NotNull;
+import svnserver.context.Shared;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Cache for parsed git trees.
+ * <p>
+ * Trees are keyed by object id only, so cache is shared by all sessions, branches and repositories.
+ * Entries are stored in compact immutable form and cache size is bounded by estimated memory usage.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+@ThreadSafe
+public final class GitTreeCache implements Shared {
+  public static final long DEFAULT_MEMORY = 32 * 1024 * 1024;
+
+  @NotNull
+  private final Cache<ObjectId, Tree> cache;
+
+  /**
+   * Create cache.
+   *
+   * @param memorySize Cache size in bytes (0 - disabled).
+   */
+  public GitTreeCache(long memorySize) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumWeight(memorySize)
+        .<ObjectId, Tree>weigher((key, value) -> value.weight)
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Load tree entries.
+   *
+   * @param readers Reader pool for tree loading.
+   * @param repo    Repository for tree loading and for returned entries.
+   * @param treeId  Tree object id.
+   * @return Tree entries in git order.
+   */
+  @NotNull
+  public List<GitTreeEntry> load(@NotNull GitReaderPool readers, @NotNull Repository repo, @NotNull ObjectId treeId) throws IOException {
+    final Tree tree;
+    try {
+      tree = cache.get(treeId.copy(), () -> parse(readers, repo, treeId));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e);
+    }
+    return tree.getEntries(repo);
+  }
+
+  @NotNull
+  private static Tree parse(@NotNull GitReaderPool readers, @NotNull Repository repo, @NotNull ObjectId treeId) throws IOException {
+    final List<String> names = new ArrayList<>();
+    int[] modes = new int[16];
+    byte[] ids = new byte[modes.length * Constants.OBJECT_ID_LENGTH];
+    try (GitReaderPool.PooledReader reader = readers.acquire(repo)) {
+      final CanonicalTreeParser treeParser = new CanonicalTreeParser(GitRepository.emptyBytes, reader.get(), treeId);
+      while (!treeParser.eof()) {
+        final int index = names.size();
+        if (index == modes.length) {
+          modes = Arrays.copyOf(modes, index * 2);
+          ids = Arrays.copyOf(ids, index * 2 * Constants.OBJECT_ID_LENGTH);
+        }
+        modes[index] = treeParser.getEntryRawMode();
+        treeParser.getEntryObjectId().copyRawTo(ids, index * Constants.OBJECT_ID_LENGTH);
+        names.add(treeParser.getEntryPathString());
+        treeParser.next();
+      }
+    }
+    final int count = names.size();
+    return new Tree(Arrays.copyOf(modes, count), Arrays.copyOf(ids, count * Constants.OBJECT_ID_LENGTH), names.toArray(new String[count]));
+  }
+
+  @NotNull
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+
+  @Override
+  public String toString() {
+    final CacheStats stats = cache.stats();
+    return "GitTreeCache{" +
+        "size=" + cache.size() +
+        ", hits=" + stats.hitCount() +
+        ", misses=" + stats.missCount() +
+        ", evictions=" + stats.evictionCount() +
+        '}';
+  }
+
+  private static final class Tree {
+    // Estimated object overhead: tree object, arrays and string headers.
+    private static final int OBJECT_OVERHEAD = 64;
+    private static final int ENTRY_OVERHEAD = 48;
+
+    @NotNull
+    private final int[] modes;
+    @NotNull
+    private final byte[] ids;
+    @NotNull
+    private final String[] names;
+    private final int weight;
+
+    private Tree(@NotNull int[] modes, @NotNull byte[] ids, @NotNull String[] names) {
+      this.modes = modes;
+      this.ids = ids;
+      this.names = names;
+      int size = OBJECT_OVERHEAD + ids.length;
+      for (String name : names) {
+        size += ENTRY_OVERHEAD + name.length() * 2;
+      }
+      this.weight = size;
+    }
+
+    @NotNull
+    private List<GitTreeEntry> getEntries(@NotNull Repository repo) {
+      return new AbstractList<GitTreeEntry>() {
+        @Override
+        public GitTreeEntry get(int index) {
+          return new GitTreeEntry(repo, FileMode.fromBits(modes[index]), ObjectId.fromRaw(ids, index * Constants.OBJECT_ID_LENGTH), names[index]);
+        }
+
+        @Override
+        public int size() {
+          return names.length;
+        }
+      };
+    }
+  }
+}
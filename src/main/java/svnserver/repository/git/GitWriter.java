@@ -247,9 +247,9 @@ public class GitWriter implements VcsWriter {
       commitBuilder.setAuthor(ident);
       commitBuilder.setCommitter(ident);
       commitBuilder.setMessage(message);
-      final RevCommit parentCommit = revision.getGitNewCommit();
+      final ObjectId parentCommit = revision.getGitNewCommitId();
       if (parentCommit != null) {
-        commitBuilder.setParentId(parentCommit.getId());
+        commitBuilder.setParentId(parentCommit);
       }
       commitBuilder.setTreeId(treeId);
       final ObjectId commitId = inserter.insert(commitBuilder);
@@ -268,6 +268,8 @@ public class GitWriter implements VcsWriter {
         log.info("Try to push commit in branch: {}", branch);
         if (!pusher.push(repo.getRepository(), commitId, branch, userInfo)) {
           log.info("Non fast forward push rejected");
+          // Branch is changed outside of server, so new head should be visible before commit retry.
+          repo.updateRevisions();
           return null;
         }
         log.info("Commit is pushed");
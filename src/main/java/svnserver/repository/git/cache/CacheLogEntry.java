@@ -0,0 +1,110 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNNodeKind;
+import svnserver.repository.VcsCopyFrom;
+import svnserver.repository.VcsLogEntry;
+
+import java.io.IOException;
+
+/**
+ * Precomputed changed path information for log.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class CacheLogEntry implements VcsLogEntry {
+  private final char change;
+  @NotNull
+  private final String kind;
+  private final boolean contentModified;
+  private final boolean propertyModified;
+  private final boolean modified;
+  @Nullable
+  private final VcsCopyFrom copyFrom;
+  // Content and property modification flags are computed (they can require blob content reading).
+  private final boolean resolved;
+
+  protected CacheLogEntry() {
+    change = 0;
+    kind = SVNNodeKind.NONE.toString();
+    contentModified = false;
+    propertyModified = false;
+    modified = false;
+    copyFrom = null;
+    resolved = true;
+  }
+
+  public CacheLogEntry(@NotNull VcsLogEntry logEntry) throws IOException, SVNException {
+    this.change = logEntry.getChange();
+    this.kind = logEntry.getKind().toString();
+    this.contentModified = logEntry.isContentModified();
+    this.propertyModified = logEntry.isPropertyModified();
+    this.modified = logEntry.isModified();
+    this.copyFrom = logEntry.getCopyFrom();
+    this.resolved = true;
+  }
+
+  private CacheLogEntry(char change, @NotNull SVNNodeKind kind, boolean modified, @Nullable VcsCopyFrom copyFrom) {
+    this.change = change;
+    this.kind = kind.toString();
+    this.contentModified = false;
+    this.propertyModified = false;
+    this.modified = modified;
+    this.copyFrom = copyFrom;
+    this.resolved = false;
+  }
+
+  /**
+   * Create entry without content and property modification flags.
+   * Flags should be resolved by full entry before use.
+   */
+  @NotNull
+  public static CacheLogEntry unresolved(char change, @NotNull SVNNodeKind kind, boolean modified, @Nullable VcsCopyFrom copyFrom) {
+    return new CacheLogEntry(change, kind, modified, copyFrom);
+  }
+
+  public boolean isResolved() {
+    return resolved;
+  }
+
+  @Override
+  public char getChange() {
+    return change;
+  }
+
+  @NotNull
+  @Override
+  public SVNNodeKind getKind() {
+    return SVNNodeKind.parseKind(kind);
+  }
+
+  @Override
+  public boolean isContentModified() {
+    return contentModified;
+  }
+
+  @Override
+  public boolean isPropertyModified() {
+    return propertyModified;
+  }
+
+  @Override
+  public boolean isModified() {
+    return modified;
+  }
+
+  @Nullable
+  @Override
+  public VcsCopyFrom getCopyFrom() {
+    return copyFrom;
+  }
+}
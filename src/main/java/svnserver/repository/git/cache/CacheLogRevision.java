@@ -0,0 +1,70 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git.cache;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Changed paths of revision for log.
+ * <p>
+ * Contains only really changed paths, so log doesn't need to compare revision trees.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class CacheLogRevision {
+  @NotNull
+  private static final ThreadLocal<Kryo> kryo = ThreadLocal.withInitial(Kryo::new);
+
+  @NotNull
+  private final Map<String, CacheLogEntry> changes = new TreeMap<>();
+
+  protected CacheLogRevision() {
+  }
+
+  public CacheLogRevision(@NotNull Map<String, CacheLogEntry> changes) {
+    this.changes.putAll(changes);
+  }
+
+  @NotNull
+  public Map<String, CacheLogEntry> getChanges() {
+    return Collections.unmodifiableMap(changes);
+  }
+
+  @Nullable
+  public static CacheLogRevision deserialize(@Nullable byte[] bytes) {
+    if (bytes != null) {
+      try (final Input input = new Input(bytes)) {
+        return kryo.get().readObjectOrNull(input, CacheLogRevision.class);
+      } catch (KryoException ignored) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  @NotNull
+  public static byte[] serialize(@NotNull CacheLogRevision cache) throws IOException {
+    try (final ByteArrayOutputStream stream = new ByteArrayOutputStream()) {
+      try (Output output = new Output(stream)) {
+        kryo.get().writeObject(output, cache);
+      }
+      return stream.toByteArray();
+    }
+  }
+}
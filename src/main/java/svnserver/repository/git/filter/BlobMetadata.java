@@ -0,0 +1,74 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git.filter;
+
+import org.jetbrains.annotations.NotNull;
+import svnserver.StringHelper;
+
+import java.util.Arrays;
+
+/**
+ * Filtered blob metadata: md5, size and binary flag.
+ * <p>
+ * Stored in cache as fixed-size binary record.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class BlobMetadata {
+  private static final int MD5_LENGTH = 16;
+  private static final int RECORD_LENGTH = MD5_LENGTH + 8 + 1;
+
+  @NotNull
+  private final byte[] md5;
+  private final long size;
+  private final boolean binary;
+
+  public BlobMetadata(@NotNull byte[] md5, long size, boolean binary) {
+    if (md5.length != MD5_LENGTH) {
+      throw new IllegalArgumentException("Invalid md5 length: " + md5.length);
+    }
+    this.md5 = md5;
+    this.size = size;
+    this.binary = binary;
+  }
+
+  @NotNull
+  public String getMd5() {
+    return StringHelper.toHex(md5);
+  }
+
+  public long getSize() {
+    return size;
+  }
+
+  public boolean isBinary() {
+    return binary;
+  }
+
+  @NotNull
+  public byte[] toBytes() {
+    final byte[] result = Arrays.copyOf(md5, RECORD_LENGTH);
+    for (int i = 0; i < 8; ++i) {
+      result[MD5_LENGTH + i] = (byte) (size >>> (56 - i * 8));
+    }
+    result[RECORD_LENGTH - 1] = (byte) (binary ? 1 : 0);
+    return result;
+  }
+
+  @NotNull
+  public static BlobMetadata fromBytes(@NotNull byte[] data) {
+    if (data.length != RECORD_LENGTH) {
+      throw new IllegalArgumentException("Invalid metadata record length: " + data.length);
+    }
+    long size = 0;
+    for (int i = 0; i < 8; ++i) {
+      size = (size << 8) | (data[MD5_LENGTH + i] & 0xFF);
+    }
+    return new BlobMetadata(Arrays.copyOf(data, MD5_LENGTH), size, data[RECORD_LENGTH - 1] != 0);
+  }
+}
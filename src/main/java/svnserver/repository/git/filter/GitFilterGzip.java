@@ -44,12 +44,12 @@ public class GitFilterGzip implements GitFilter {
   @NotNull
   @Override
   public String getMd5(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
-    return GitFilterHelper.getMd5(this, cacheDb, objectId, true);
+    return GitFilterHelper.getMd5(this, cacheDb, objectId);
   }
 
   @Override
   public long getSize(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
-    return GitFilterHelper.getSize(this, cacheDb, objectId, true);
+    return GitFilterHelper.getSize(this, cacheDb, objectId);
   }
 
   @NotNull
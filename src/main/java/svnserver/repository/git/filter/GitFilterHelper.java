@@ -8,16 +8,19 @@
 package svnserver.repository.git.filter;
 
 import org.atteo.classindex.ClassIndex;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 import org.mapdb.DB;
+import org.mapdb.Hasher;
+import org.mapdb.Serializer;
 import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
 import svnserver.HashHelper;
-import svnserver.StringHelper;
 import svnserver.context.LocalContext;
 import svnserver.repository.git.GitObject;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Modifier;
@@ -32,65 +35,77 @@ import java.util.Map;
  */
 public class GitFilterHelper {
   private static final int BUFFER_SIZE = 32 * 1024;
+  // Same as in SVNFileUtil.detectMimeType.
+  private static final int BINARY_PROBE_SIZE = 1024;
 
   private GitFilterHelper() {
   }
 
-  public static long getSize(@NotNull GitFilter filter, @NotNull DB cacheDb, @NotNull GitObject<? extends ObjectId> objectId, boolean needMd5) throws IOException, SVNException {
-    final Map<String, Long> cacheSize = getCacheSize(filter, cacheDb);
-    final Long size = cacheSize.get(objectId.getObject().name());
-    if (size != null) {
-      return size;
-    }
-    return createMetadata(objectId, filter, needMd5 ? getCacheMd5(filter, cacheDb) : null, cacheSize).size;
+  public static long getSize(@NotNull GitFilter filter, @NotNull DB cacheDb, @NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
+    return getMetadata(filter, cacheDb, objectId).getSize();
   }
 
   @NotNull
-  public static String getMd5(@NotNull GitFilter filter, @NotNull DB cacheDb, @NotNull GitObject<? extends ObjectId> objectId, boolean needSize) throws IOException, SVNException {
-    final Map<String, String> cacheMd5 = getCacheMd5(filter, cacheDb);
-    final String md5 = cacheMd5.get(objectId.getObject().name());
-    if (md5 != null) {
-      return md5;
-    }
-    //noinspection ConstantConditions
-    return createMetadata(objectId, filter, cacheMd5, needSize ? getCacheSize(filter, cacheDb) : null).md5;
+  public static String getMd5(@NotNull GitFilter filter, @NotNull DB cacheDb, @NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
+    return getMetadata(filter, cacheDb, objectId).getMd5();
+  }
+
+  public static boolean isBinary(@NotNull GitFilter filter, @NotNull DB cacheDb, @NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
+    return getMetadata(filter, cacheDb, objectId).isBinary();
   }
 
+  /**
+   * Get filtered blob metadata. All metadata is computed in one pass over content on first request.
+   */
   @NotNull
-  private static Map<String, String> getCacheMd5(@NotNull GitFilter filter, @NotNull DB cacheDb) {
-    return cacheDb.getHashMap("cache.filter." + filter.getName() + ".md5");
+  public static BlobMetadata getMetadata(@NotNull GitFilter filter, @NotNull DB cacheDb, @NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
+    final Map<byte[], byte[]> cache = getCacheMetadata(filter, cacheDb);
+    final byte[] key = new byte[Constants.OBJECT_ID_LENGTH];
+    objectId.getObject().copyRawTo(key, 0);
+    final byte[] cached = cache.get(key);
+    if (cached != null) {
+      return BlobMetadata.fromBytes(cached);
+    }
+    final BlobMetadata metadata = createMetadata(objectId, filter);
+    cache.putIfAbsent(key, metadata.toBytes());
+    return metadata;
   }
 
   @NotNull
-  private static Map<String, Long> getCacheSize(@NotNull GitFilter filter, @NotNull DB cacheDb) {
-    return cacheDb.getHashMap("cache.filter." + filter.getName() + ".size");
+  private static Map<byte[], byte[]> getCacheMetadata(@NotNull GitFilter filter, @NotNull DB cacheDb) {
+    final String name = "cache.filter." + filter.getName() + ".meta";
+    if (cacheDb.exists(name)) {
+      return cacheDb.getHashMap(name);
+    }
+    return cacheDb.createHashMap(name)
+        .keySerializer(Serializer.BYTE_ARRAY)
+        .valueSerializer(Serializer.BYTE_ARRAY)
+        .hasher(Hasher.BYTE_ARRAY)
+        .makeOrGet();
   }
 
   @NotNull
-  private static Metadata createMetadata(@NotNull GitObject<? extends ObjectId> objectId, @NotNull GitFilter filter, @Nullable Map<String, String> cacheMd5, @Nullable Map<String, Long> cacheSize) throws IOException, SVNException {
+  private static BlobMetadata createMetadata(@NotNull GitObject<? extends ObjectId> objectId, @NotNull GitFilter filter) throws IOException, SVNException {
     final byte[] buffer = new byte[BUFFER_SIZE];
     try (final InputStream stream = filter.inputStream(objectId)) {
-      final MessageDigest digest = cacheMd5 != null ? HashHelper.md5() : null;
-      long totalSize = 0;
+      final MessageDigest digest = HashHelper.md5();
+      // Read head of content for binary detection.
+      int head = 0;
+      while (head < BINARY_PROBE_SIZE) {
+        final int bytes = stream.read(buffer, head, BINARY_PROBE_SIZE - head);
+        if (bytes <= 0) break;
+        head += bytes;
+      }
+      final boolean binary = SVNFileUtil.detectMimeType(new ByteArrayInputStream(buffer, 0, head)) != null;
+      digest.update(buffer, 0, head);
+      long totalSize = head;
       while (true) {
         int bytes = stream.read(buffer);
         if (bytes <= 0) break;
-        if (digest != null) {
-          digest.update(buffer, 0, bytes);
-        }
+        digest.update(buffer, 0, bytes);
         totalSize += bytes;
       }
-      final String md5;
-      if ((cacheMd5 != null) && (digest != null)) {
-        md5 = StringHelper.toHex(digest.digest());
-        cacheMd5.putIfAbsent(objectId.getObject().name(), md5);
-      } else {
-        md5 = null;
-      }
-      if (cacheSize != null) {
-        cacheSize.putIfAbsent(objectId.getObject().name(), totalSize);
-      }
-      return new Metadata(totalSize, md5);
+      return new BlobMetadata(digest.digest(), totalSize, binary);
     }
   }
 
@@ -112,15 +127,4 @@ public class GitFilterHelper {
     }
     return result;
   }
-
-  private static class Metadata {
-    private final long size;
-    @Nullable
-    private final String md5;
-
-    public Metadata(long size, @Nullable String md5) {
-      this.size = size;
-      this.md5 = md5;
-    }
-  }
 }
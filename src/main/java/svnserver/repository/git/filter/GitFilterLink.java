@@ -9,7 +9,6 @@ package svnserver.repository.git.filter;
 
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
-import org.eclipse.jgit.lib.ObjectReader;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.mapdb.DB;
@@ -17,6 +16,7 @@ import org.tmatesoft.svn.core.SVNException;
 import svnserver.auth.User;
 import svnserver.context.LocalContext;
 import svnserver.repository.git.GitObject;
+import svnserver.repository.git.GitReaderPool;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -36,9 +36,12 @@ public class GitFilterLink implements GitFilter {
   public static final String NAME = "link";
   @NotNull
   private final DB cacheDb;
+  @NotNull
+  private final GitReaderPool readers;
 
   public GitFilterLink(@NotNull LocalContext context) {
     this.cacheDb = context.getShared().getCacheDB();
+    this.readers = GitReaderPool.get(context.getShared());
   }
 
   @NotNull
@@ -50,13 +53,14 @@ public class GitFilterLink implements GitFilter {
   @NotNull
   @Override
   public String getMd5(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
-    return GitFilterHelper.getMd5(this, cacheDb, objectId, false);
+    return GitFilterHelper.getMd5(this, cacheDb, objectId);
   }
 
   @Override
   public long getSize(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
-    final ObjectReader reader = objectId.getRepo().newObjectReader();
-    return reader.getObjectSize(objectId.getObject(), Constants.OBJ_BLOB) + LINK_PREFIX.length;
+    try (GitReaderPool.PooledReader reader = readers.acquire(objectId.getRepo())) {
+      return reader.get().getObjectSize(objectId.getObject(), Constants.OBJ_BLOB) + LINK_PREFIX.length;
+    }
   }
 
   @NotNull
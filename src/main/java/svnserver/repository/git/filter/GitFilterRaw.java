@@ -10,7 +10,6 @@ package svnserver.repository.git.filter;
 import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectLoader;
-import org.eclipse.jgit.lib.ObjectReader;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.mapdb.DB;
@@ -18,6 +17,7 @@ import org.tmatesoft.svn.core.SVNException;
 import svnserver.auth.User;
 import svnserver.context.LocalContext;
 import svnserver.repository.git.GitObject;
+import svnserver.repository.git.GitReaderPool;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -32,10 +32,13 @@ public final class GitFilterRaw implements GitFilter {
   @NotNull
   private final DB cacheDb;
   @NotNull
+  private final GitReaderPool readers;
+  @NotNull
   public static final String NAME = "raw";
 
   public GitFilterRaw(@NotNull LocalContext context) {
     this.cacheDb = context.getShared().getCacheDB();
+    this.readers = GitReaderPool.get(context.getShared());
   }
 
   @NotNull
@@ -47,13 +50,14 @@ public final class GitFilterRaw implements GitFilter {
   @NotNull
   @Override
   public String getMd5(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
-    return GitFilterHelper.getMd5(this, cacheDb, objectId, false);
+    return GitFilterHelper.getMd5(this, cacheDb, objectId);
   }
 
   @Override
   public long getSize(@NotNull GitObject<? extends ObjectId> objectId) throws IOException, SVNException {
-    final ObjectReader reader = objectId.getRepo().newObjectReader();
-    return reader.getObjectSize(objectId.getObject(), Constants.OBJ_BLOB);
+    try (GitReaderPool.PooledReader reader = readers.acquire(objectId.getRepo())) {
+      return reader.get().getObjectSize(objectId.getObject(), Constants.OBJ_BLOB);
+    }
   }
 
   @NotNull
@@ -0,0 +1,25 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+/**
+ * Client connection serving strategy.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public enum ConnectionEngine {
+  /**
+   * Every client connection owns a thread for the whole session.
+   */
+  THREAD,
+  /**
+   * Idle client connections (including handshake and authentication) are parked on NIO selector and don't hold any thread.
+   * Commands are executed on bounded thread pool.
+   */
+  SELECTOR
+}
@@ -21,6 +21,7 @@ import svnserver.repository.RepositoryInfo;
 import svnserver.repository.VcsAccess;
 import svnserver.repository.VcsFile;
 import svnserver.repository.VcsRepository;
+import svnserver.server.command.ReportWriter;
 import svnserver.server.msg.ClientInfo;
 import svnserver.server.step.Step;
 
@@ -78,6 +79,18 @@ public final class SessionContext {
     this.user = server.authenticate(parser, writer, repositoryInfo, allowAnonymous);
   }
 
+  void setUser(@NotNull User user) {
+    if (!this.user.isAnonymous()) {
+      throw new IllegalStateException();
+    }
+    this.user = user;
+  }
+
+  @NotNull
+  RepositoryInfo getRepositoryInfo() {
+    return repositoryInfo;
+  }
+
   public boolean hasCapability(@NotNull String capability) {
     return capabilities.contains(capability);
   }
@@ -128,6 +141,14 @@ public final class SessionContext {
     return writer;
   }
 
+  /**
+   * Create writer for editor drive.
+   */
+  @NotNull
+  public ReportWriter createReportWriter() {
+    return server.createReportWriter(writer);
+  }
+
   public void push(@NotNull Step step) {
     stepStack.push(step);
   }
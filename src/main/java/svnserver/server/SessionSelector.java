@@ -0,0 +1,126 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Waits for incoming data on idle client connections without holding a thread per connection.
+ * <p>
+ * Parked channel is switched to non-blocking mode until data is available.
+ * After that channel is switched back to blocking mode and resume callback is executed.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+final class SessionSelector extends Thread implements AutoCloseable {
+  @NotNull
+  private static final Logger log = LoggerFactory.getLogger(SessionSelector.class);
+  @NotNull
+  private final Selector selector;
+  @NotNull
+  private final Queue<Parked> pending = new ConcurrentLinkedQueue<>();
+
+  SessionSelector() throws IOException {
+    super("SessionSelector");
+    setDaemon(true);
+    selector = Selector.open();
+  }
+
+  /**
+   * Wait for incoming data on channel.
+   *
+   * @param channel Idle client channel.
+   * @param resume  Callback for execution when channel has data (or closed).
+   */
+  void park(@NotNull SocketChannel channel, @NotNull Runnable resume) throws IOException {
+    channel.configureBlocking(false);
+    pending.add(new Parked(channel, resume));
+    selector.wakeup();
+  }
+
+  @Override
+  public void run() {
+    final List<SelectionKey> ready = new ArrayList<>();
+    try {
+      while (selector.isOpen()) {
+        selector.select();
+        registerPending();
+        final Set<SelectionKey> selected = selector.selectedKeys();
+        for (SelectionKey key : selected) {
+          key.cancel();
+          ready.add(key);
+        }
+        selected.clear();
+        if (ready.isEmpty()) {
+          continue;
+        }
+        // Cancelled keys are deregistered only by next selection operation.
+        selector.selectNow();
+        for (SelectionKey key : ready) {
+          resume((Parked) key.attachment());
+        }
+        ready.clear();
+      }
+    } catch (ClosedSelectorException ignored) {
+      // Selector is closed on server shutdown.
+    } catch (IOException e) {
+      log.error("Session selector error", e);
+    }
+  }
+
+  private void registerPending() {
+    while (true) {
+      final Parked parked = pending.poll();
+      if (parked == null) {
+        break;
+      }
+      try {
+        parked.channel.register(selector, SelectionKey.OP_READ, parked);
+      } catch (ClosedChannelException e) {
+        // Resumed session will got closed connection error and release it.
+        parked.resume.run();
+      }
+    }
+  }
+
+  private void resume(@NotNull Parked parked) {
+    try {
+      parked.channel.configureBlocking(true);
+    } catch (IOException e) {
+      log.debug("Can't switch channel to blocking mode", e);
+    }
+    parked.resume.run();
+  }
+
+  @Override
+  public void close() throws IOException {
+    selector.close();
+  }
+
+  private static final class Parked {
+    @NotNull
+    private final SocketChannel channel;
+    @NotNull
+    private final Runnable resume;
+
+    private Parked(@NotNull SocketChannel channel, @NotNull Runnable resume) {
+      this.channel = channel;
+      this.resume = resume;
+    }
+  }
+}
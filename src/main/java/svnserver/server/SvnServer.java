@@ -8,6 +8,8 @@
 package svnserver.server;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mapdb.DB;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tmatesoft.svn.core.SVNErrorCode;
@@ -26,23 +28,29 @@ import svnserver.parser.SvnServerWriter;
 import svnserver.parser.token.ListBeginToken;
 import svnserver.parser.token.ListEndToken;
 import svnserver.repository.RepositoryInfo;
+import svnserver.repository.RepositoryWarmer;
+import svnserver.repository.RevisionWatcher;
 import svnserver.repository.VcsAccess;
-import svnserver.repository.VcsRepository;
 import svnserver.repository.VcsRepositoryMapping;
+import svnserver.repository.git.GitReaderPool;
+import svnserver.repository.git.GitTreeCache;
 import svnserver.server.command.*;
 import svnserver.server.msg.AuthReq;
 import svnserver.server.msg.ClientInfo;
 import svnserver.server.step.Step;
 
-import java.io.BufferedOutputStream;
 import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.*;
+import java.nio.channels.ServerSocketChannel;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -78,6 +86,10 @@ public class SvnServer extends Thread {
   private final ServerSocket serverSocket;
   @NotNull
   private final ExecutorService poolExecutor;
+  @Nullable
+  private final ExecutorService deltaExecutor;
+  @Nullable
+  private final SessionSelector sessionSelector;
   @NotNull
   private final AtomicBoolean stopped = new AtomicBoolean(false);
   @NotNull
@@ -91,6 +103,13 @@ public class SvnServer extends Thread {
 
     context = SharedContext.create(basePath, config.getCacheConfig().createCache(basePath), config.getShared());
     context.add(UserDB.class, config.getUserDB().create(context));
+    final DB deltaCacheDb = config.getDeltaCacheDisk() > 0 ? config.getCacheConfig().createCache(basePath, "delta") : null;
+    context.add(DeltaCache.class, new DeltaCache(deltaCacheDb, config.getDeltaCacheMemory(), config.getDeltaCacheDisk()));
+    context.add(GitTreeCache.class, new GitTreeCache(config.getTreeCacheMemory()));
+    if (config.getRevisionWatchInterval() > 0) {
+      context.add(RevisionWatcher.class, new RevisionWatcher(config.getRevisionWatchInterval()));
+    }
+    final RepositoryWarmer warmer = context.add(RepositoryWarmer.class, new RepositoryWarmer(config.getWarmupThreads()));
 
     commands.put("commit", new CommitCmd());
     commands.put("diff", new DeltaCmd(DiffParams.class));
@@ -100,6 +119,7 @@ public class SvnServer extends Thread {
     commands.put("get-dated-rev", new GetDatedRevCmd());
     commands.put("get-dir", new GetDirCmd());
     commands.put("get-file", new GetFileCmd());
+    commands.put("get-file-revs", new GetFileRevsCmd());
     commands.put("get-iprops", new GetIPropsCmd());
     commands.put("log", new LogCmd());
     commands.put("reparent", new ReparentCmd());
@@ -122,13 +142,32 @@ public class SvnServer extends Thread {
 
     repositoryMapping = config.getRepositoryMapping().create(context);
     context.add(VcsRepositoryMapping.class, repositoryMapping);
-    repositoryMapping.initRevisions();
-
-    serverSocket = new ServerSocket();
+    // Repositories are initialized in background after server is ready.
+    repositoryMapping.initRevisions(warmer);
+
+    switch (config.getConnectionEngine()) {
+      case SELECTOR:
+        // Channel is required for parking idle connections on selector.
+        serverSocket = ServerSocketChannel.open().socket();
+        poolExecutor = Executors.newFixedThreadPool(config.getMaxConcurrentCommands() > 0 ? config.getMaxConcurrentCommands() : Runtime.getRuntime().availableProcessors() * 4);
+        sessionSelector = new SessionSelector();
+        sessionSelector.start();
+        break;
+      case THREAD:
+      default:
+        serverSocket = new ServerSocket();
+        poolExecutor = Executors.newCachedThreadPool();
+        sessionSelector = null;
+        break;
+    }
+    if (config.getDeltaReadahead() > 0) {
+      deltaExecutor = Executors.newFixedThreadPool(config.getDeltaThreads() > 0 ? config.getDeltaThreads() : Runtime.getRuntime().availableProcessors());
+    } else {
+      deltaExecutor = null;
+    }
     serverSocket.setReuseAddress(config.getReuseAddress());
-    serverSocket.bind(new InetSocketAddress(InetAddress.getByName(config.getHost()), config.getPort()));
-    poolExecutor = Executors.newCachedThreadPool();
-    log.info("Server bind: {}", serverSocket.getLocalSocketAddress());
+    serverSocket.bind(new InetSocketAddress(InetAddress.getByName(config.getHost()), config.getPort()), config.getAcceptBacklog());
+    log.info("Server bind: {} (connection engine: {})", serverSocket.getLocalSocketAddress(), config.getConnectionEngine());
 
     context.ready();
   }
@@ -157,41 +196,195 @@ public class SvnServer extends Thread {
         log.error("Error accepting client connection", e);
         continue;
       }
-      long sessionId = lastSessionId.incrementAndGet();
-      poolExecutor.execute(() -> {
-        log.info("New connection from: {}", client.getRemoteSocketAddress());
-        try (Socket clientSocket = client) {
-          connections.put(sessionId, client);
-          serveClient(clientSocket);
-        } catch (EOFException | SocketException ignore) {
-          // client disconnect is not a error
-        } catch (SVNException | IOException e) {
-          log.info("Client error:", e);
-        } finally {
-          connections.remove(sessionId);
-          log.info("Connection from {} closed", client.getRemoteSocketAddress());
-        }
-      });
+      if (config.getMaxConnections() > 0 && connections.size() >= config.getMaxConnections()) {
+        rejectClient(client);
+        continue;
+      }
+      final ClientConnection connection = new ClientConnection(lastSessionId.incrementAndGet(), client);
+      connections.put(connection.sessionId, client);
+      log.info("New connection from: {}", client.getRemoteSocketAddress());
+      try {
+        poolExecutor.execute(() -> serveConnection(connection));
+      } catch (RejectedExecutionException e) {
+        closeConnection(connection);
+      }
+    }
+  }
+
+  private void rejectClient(@NotNull Socket client) {
+    log.warn("Connection from {} rejected: too many connections", client.getRemoteSocketAddress());
+    try (Socket clientSocket = client) {
+      final SvnServerWriter writer = new SvnServerWriter(clientSocket.getOutputStream());
+      BaseCmd.sendError(writer, SVNErrorMessage.create(SVNErrorCode.RA_SVN_CONNECTION_CLOSED, "Too many connections, try again later"));
+    } catch (IOException e) {
+      log.debug("Can't send reject message to client", e);
+    }
+  }
+
+  private void serveConnection(@NotNull ClientConnection connection) {
+    boolean park = false;
+    try {
+      if (connection.stage != SessionStage.READY) {
+        park = openSession(connection, sessionSelector != null);
+      }
+      if (!park && connection.stage == SessionStage.READY) {
+        //noinspection ConstantConditions
+        park = serveCommands(connection.context, sessionSelector != null);
+      }
+    } catch (EOFException | SocketException ignore) {
+      // client disconnect is not a error
+    } catch (SVNException | IOException e) {
+      log.info("Client error:", e);
+    } finally {
+      if (park) {
+        park = parkConnection(connection);
+      }
+      if (!park) {
+        closeConnection(connection);
+      }
+    }
+  }
+
+  private boolean parkConnection(@NotNull ClientConnection connection) {
+    try {
+      //noinspection ConstantConditions
+      sessionSelector.park(connection.socket.getChannel(), () -> resumeConnection(connection));
+      return true;
+    } catch (IOException e) {
+      log.info("Can't wait for client command:", e);
+      return false;
     }
   }
 
+  private void resumeConnection(@NotNull ClientConnection connection) {
+    try {
+      poolExecutor.execute(() -> serveConnection(connection));
+    } catch (RejectedExecutionException e) {
+      closeConnection(connection);
+    }
+  }
+
+  private void closeConnection(@NotNull ClientConnection connection) {
+    try {
+      connection.socket.close();
+    } catch (IOException e) {
+      log.debug("Can't close client socket", e);
+    }
+    connections.remove(connection.sessionId);
+    synchronized (connections) {
+      connections.notifyAll();
+    }
+    log.info("Connection from {} closed", connection.socket.getRemoteSocketAddress());
+  }
+
   public void serveClient(@NotNull Socket socket) throws IOException, SVNException {
-    socket.setTcpNoDelay(true);
-    final SvnServerWriter writer = new SvnServerWriter(new BufferedOutputStream(socket.getOutputStream()));
-    final SvnServerParser parser = new SvnServerParser(socket.getInputStream());
+    final ClientConnection connection = new ClientConnection(0, socket);
+    openSession(connection, false);
+    if (connection.stage == SessionStage.READY) {
+      //noinspection ConstantConditions
+      serveCommands(connection.context, false);
+    }
+  }
 
-    final ClientInfo clientInfo = exchangeCapabilities(parser, writer);
+  /**
+   * Open client session. Session is opened by stages, so connection can be parked while client doesn't send
+   * handshake or authentication data.
+   *
+   * @param connection Client connection.
+   * @param parkable   Return on waiting for client data.
+   * @return Returns true, if session is waiting for client data.
+   */
+  @SuppressWarnings("ConstantConditions")
+  private boolean openSession(@NotNull ClientConnection connection, boolean parkable) throws IOException, SVNException {
+    while (true) {
+      switch (connection.stage) {
+        case CONNECTED:
+          connection.socket.setTcpNoDelay(true);
+          connection.writer = new SvnServerWriter(connection.socket.getOutputStream());
+          connection.parser = new SvnServerParser(connection.socket.getInputStream());
+          sendCapabilities(connection.writer);
+          connection.stage = SessionStage.GREETED;
+          break;
+        case GREETED:
+          connection.context = createSession(connection.parser, connection.writer);
+          if (connection.context == null) {
+            connection.stage = SessionStage.CLOSED;
+            return false;
+          }
+          final RepositoryInfo repositoryInfo = connection.context.getRepositoryInfo();
+          connection.authenticators = sendAuthRequest(connection.writer, repositoryInfo, hasAnonymousAuthenticator(repositoryInfo));
+          connection.stage = SessionStage.AUTHENTICATING;
+          break;
+        case AUTHENTICATING:
+          final User user = readAuthResponse(connection.parser, connection.writer, connection.authenticators);
+          if (user == null) {
+            break;
+          }
+          connection.authenticators = null;
+          connection.context.setUser(user);
+          startSession(connection.context);
+          connection.stage = SessionStage.READY;
+          return parkable && connection.parser.isBufferEmpty();
+        default:
+          return false;
+      }
+      if (parkable && connection.parser.isBufferEmpty()) {
+        return true;
+      }
+    }
+  }
+
+  @Nullable
+  private SessionContext createSession(@NotNull SvnServerParser parser, @NotNull SvnServerWriter writer) throws IOException, SVNException {
+    final ClientInfo clientInfo = readClientInfo(parser);
     final RepositoryInfo repositoryInfo = repositoryMapping.getRepository(clientInfo.getUrl());
     if (repositoryInfo == null) {
       BaseCmd.sendError(writer, SVNErrorMessage.create(SVNErrorCode.RA_SVN_REPOS_NOT_FOUND, "Repository not found: " + clientInfo.getUrl()));
-      return;
+      return null;
+    }
+    try {
+      if (!awaitRepository(repositoryInfo)) {
+        BaseCmd.sendError(writer, SVNErrorMessage.create(SVNErrorCode.RA_SVN_CONNECTION_CLOSED, "Repository is warming up, try again later: " + clientInfo.getUrl()));
+        return null;
+      }
+    } catch (ExecutionException e) {
+      BaseCmd.sendError(writer, SVNErrorMessage.create(SVNErrorCode.RA_SVN_CONNECTION_CLOSED, "Repository initialization failed: " + clientInfo.getUrl()));
+      return null;
     }
-    final SessionContext context = new SessionContext(parser, writer, this, repositoryInfo, clientInfo);
-    context.authenticate(hasAnonymousAuthenticator(repositoryInfo));
-    final VcsRepository repository = context.getRepository();
-    repository.updateRevisions();
-    sendAnnounce(writer, repositoryInfo);
+    return new SessionContext(parser, writer, this, repositoryInfo, clientInfo);
+  }
 
+  private void startSession(@NotNull SessionContext context) throws IOException, SVNException {
+    if (this.context.get(RevisionWatcher.class) == null) {
+      // Without background watcher check repository changes on every connection.
+      context.getRepository().updateRevisions();
+    }
+    sendAnnounce(context.getWriter(), context.getRepositoryInfo());
+  }
+
+  private boolean awaitRepository(@NotNull RepositoryInfo repositoryInfo) throws InterruptedIOException, ExecutionException {
+    final RepositoryWarmer warmer = context.sure(RepositoryWarmer.class);
+    // Selector engine has bounded pool: don't hold pool thread while repository is warming up.
+    final long timeout = sessionSelector != null ? 0 : config.getWarmupTimeout();
+    try {
+      return warmer.await(repositoryInfo.getRepository(), timeout);
+    } catch (InterruptedException e) {
+      throw new InterruptedIOException();
+    }
+  }
+
+  /**
+   * Execute client commands.
+   *
+   * @param context  Session context.
+   * @param parkable Return on waiting for next command (at least one command is read before return).
+   * @return Returns true, if session is waiting for next command.
+   */
+  private boolean serveCommands(@NotNull SessionContext context, boolean parkable) throws IOException, SVNException {
+    final SvnServerParser parser = context.getParser();
+    final SvnServerWriter writer = context.getWriter();
+    // Session is resumed by incoming data: it is in socket, not in parser buffer.
+    boolean received = false;
     while (!isInterrupted()) {
       try {
         Step step = context.poll();
@@ -199,8 +392,12 @@ public class SvnServer extends Thread {
           step.process(context);
           continue;
         }
+        if (parkable && received && parser.isBufferEmpty()) {
+          return true;
+        }
 
         final SvnServerToken token = parser.readToken();
+        received = true;
         if (token != ListBeginToken.instance) {
           throw new IOException("Unexpected token: " + token);
         }
@@ -226,9 +423,10 @@ public class SvnServer extends Thread {
         BaseCmd.sendError(writer, e.getErrorMessage());
       }
     }
+    return false;
   }
 
-  private ClientInfo exchangeCapabilities(SvnServerParser parser, SvnServerWriter writer) throws IOException, SVNException {
+  private void sendCapabilities(@NotNull SvnServerWriter writer) throws IOException {
     // Анонсируем поддерживаемые функции.
     writer
         .listBegin()
@@ -256,7 +454,10 @@ public class SvnServer extends Thread {
         .listEnd()
         .listEnd()
         .listEnd();
+  }
 
+  @NotNull
+  private static ClientInfo readClientInfo(@NotNull SvnServerParser parser) throws IOException, SVNException {
     // Читаем информацию о клиенте.
     final ClientInfo clientInfo = MessageParser.parse(ClientInfo.class, parser);
     if (clientInfo.getProtocolVersion() != 2) {
@@ -267,6 +468,17 @@ public class SvnServer extends Thread {
 
   @NotNull
   public User authenticate(@NotNull SvnServerParser parser, @NotNull SvnServerWriter writer, @NotNull RepositoryInfo repositoryInfo, boolean allowAnonymous) throws IOException, SVNException {
+    final List<Authenticator> authenticators = sendAuthRequest(writer, repositoryInfo, allowAnonymous);
+    while (true) {
+      final User user = readAuthResponse(parser, writer, authenticators);
+      if (user != null) {
+        return user;
+      }
+    }
+  }
+
+  @NotNull
+  private List<Authenticator> sendAuthRequest(@NotNull SvnServerWriter writer, @NotNull RepositoryInfo repositoryInfo, boolean allowAnonymous) throws IOException {
     // Отправляем запрос на авторизацию.
     final List<Authenticator> authenticators = new ArrayList<>(context.sure(UserDB.class).authenticators());
     if (allowAnonymous) {
@@ -282,32 +494,39 @@ public class SvnServer extends Thread {
         .string(config.getRealm().isEmpty() ? repositoryInfo.getRepository().getUuid() : config.getRealm())
         .listEnd()
         .listEnd();
+    return authenticators;
+  }
 
-    while (true) {
-      // Читаем выбранный вариант авторизации.
-      final AuthReq authReq = MessageParser.parse(AuthReq.class, parser);
-      final Optional<Authenticator> authenticator = authenticators.stream().filter(o -> o.getMethodName().equals(authReq.getMech())).findAny();
-      if (!authenticator.isPresent()) {
-        sendError(writer, "unknown auth type: " + authReq.getMech());
-        continue;
-      }
+  /**
+   * Read client authentication response.
+   *
+   * @return Authenticated user or null, if client should select authentication again.
+   */
+  @Nullable
+  private User readAuthResponse(@NotNull SvnServerParser parser, @NotNull SvnServerWriter writer, @NotNull List<Authenticator> authenticators) throws IOException, SVNException {
+    // Читаем выбранный вариант авторизации.
+    final AuthReq authReq = MessageParser.parse(AuthReq.class, parser);
+    final Optional<Authenticator> authenticator = authenticators.stream().filter(o -> o.getMethodName().equals(authReq.getMech())).findAny();
+    if (!authenticator.isPresent()) {
+      sendError(writer, "unknown auth type: " + authReq.getMech());
+      return null;
+    }
 
-      final User user = authenticator.get().authenticate(parser, writer, authReq.getToken());
-      if (user == null) {
-        sendError(writer, "incorrect credentials");
-        continue;
-      }
+    final User user = authenticator.get().authenticate(parser, writer, authReq.getToken());
+    if (user == null) {
+      sendError(writer, "incorrect credentials");
+      return null;
+    }
 
-      writer
-          .listBegin()
-          .word("success")
-          .listBegin()
-          .listEnd()
-          .listEnd();
+    writer
+        .listBegin()
+        .word("success")
+        .listBegin()
+        .listEnd()
+        .listEnd();
 
-      log.info("User: {}", user);
-      return user;
-    }
+    log.info("User: {}", user);
+    return user;
   }
 
   private boolean hasAnonymousAuthenticator(RepositoryInfo repositoryInfo) throws IOException {
@@ -347,28 +566,95 @@ public class SvnServer extends Thread {
     if (stopped.compareAndSet(false, true)) {
       log.info("Shutdown server");
       serverSocket.close();
-      poolExecutor.shutdown();
     }
   }
 
   public void shutdown(long millis) throws InterruptedException, IOException {
     startShutdown();
-    if (!poolExecutor.awaitTermination(millis, TimeUnit.MILLISECONDS)) {
+    if (!awaitConnections(millis)) {
       forceShutdown();
     }
+    poolExecutor.shutdown();
+    poolExecutor.awaitTermination(FORCE_SHUTDOWN, TimeUnit.MILLISECONDS);
+    if (deltaExecutor != null) {
+      deltaExecutor.shutdownNow();
+    }
+    context.sure(RepositoryWarmer.class).close();
+    final RevisionWatcher watcher = context.get(RevisionWatcher.class);
+    if (watcher != null) {
+      watcher.close();
+    }
+    if (sessionSelector != null) {
+      sessionSelector.close();
+      sessionSelector.join(millis);
+    }
     join(millis);
+    log.info("Delta cache statistics: {}", context.sure(DeltaCache.class));
+    log.info("Tree cache statistics: {}", context.sure(GitTreeCache.class));
+    context.sure(DeltaCache.class).close();
+    final GitReaderPool readerPool = context.get(GitReaderPool.class);
+    if (readerPool != null) {
+      readerPool.close();
+    }
     context.close();
     log.info("Server shutdowned");
   }
 
-  private void forceShutdown() throws IOException, InterruptedException {
+  private boolean awaitConnections(long millis) throws InterruptedException {
+    final long deadline = System.currentTimeMillis() + millis;
+    synchronized (connections) {
+      while (!connections.isEmpty()) {
+        final long timeout = deadline - System.currentTimeMillis();
+        if (timeout <= 0) {
+          return false;
+        }
+        connections.wait(timeout);
+      }
+    }
+    return true;
+  }
+
+  private void forceShutdown() throws IOException {
     for (Socket socket : connections.values()) {
       socket.close();
     }
-    poolExecutor.awaitTermination(FORCE_SHUTDOWN, TimeUnit.MILLISECONDS);
   }
 
   public boolean isCompressionEnabled() {
     return config.isCompressionEnabled();
   }
+
+  @NotNull
+  public ReportWriter createReportWriter(@NotNull SvnServerWriter writer) {
+    return new ReportWriter(writer, deltaExecutor, config.getDeltaReadahead(), config.getDeltaReadaheadMemory());
+  }
+
+  private enum SessionStage {
+    CONNECTED,
+    GREETED,
+    AUTHENTICATING,
+    READY,
+    CLOSED
+  }
+
+  private static final class ClientConnection {
+    private final long sessionId;
+    @NotNull
+    private final Socket socket;
+    @NotNull
+    private SessionStage stage = SessionStage.CONNECTED;
+    @Nullable
+    private SvnServerParser parser;
+    @Nullable
+    private SvnServerWriter writer;
+    @Nullable
+    private SessionContext context;
+    @Nullable
+    private List<Authenticator> authenticators;
+
+    private ClientConnection(long sessionId, @NotNull Socket socket) {
+      this.sessionId = sessionId;
+      this.socket = socket;
+    }
+  }
 }
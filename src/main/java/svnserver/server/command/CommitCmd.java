@@ -194,20 +194,10 @@ public final class CommitCmd extends BaseCmd<CommitCmd.CommitParams> {
     }
   }
 
-  public static class DeltaChunkParams {
-    @NotNull
-    private final String token;
-    @NotNull
-    private final byte[] chunk;
-
-    public DeltaChunkParams(@NotNull String token, @NotNull byte[] chunk) {
-      this.token = token;
-      this.chunk = chunk;
-    }
-  }
-
   private static final int MAX_PASS_COUNT = 10;
   @NotNull
+  private static final String TEXTDELTA_CHUNK = "textdelta-chunk";
+  @NotNull
   private static final Logger log = LoggerFactory.getLogger(DeltaCmd.class);
 
   @NotNull
@@ -322,7 +312,6 @@ public final class CommitCmd extends BaseCmd<CommitCmd.CommitParams> {
       commands.put("open-file", new LambdaCmd<>(OpenParams.class, this::openFile));
       commands.put("close-dir", new LambdaCmd<>(TokenParams.class, this::closeDir));
       commands.put("close-file", new LambdaCmd<>(ChecksumParams.class, this::closeFile));
-      commands.put("textdelta-chunk", new LambdaCmd<>(DeltaChunkParams.class, this::deltaChunk));
       commands.put("textdelta-end", new LambdaCmd<>(TokenParams.class, this::deltaEnd));
       commands.put("apply-textdelta", new LambdaCmd<>(ChecksumParams.class, this::deltaApply));
 
@@ -504,8 +493,40 @@ public final class CommitCmd extends BaseCmd<CommitCmd.CommitParams> {
       getFile(args.token).deltaConsumer.applyTextDelta(null, args.checksum.length == 0 ? null : args.checksum[0]);
     }
 
-    private void deltaChunk(@NotNull SessionContext context, @NotNull DeltaChunkParams args) throws SVNException, IOException {
-      getFile(args.token).reader.nextWindow(args.chunk, 0, args.chunk.length, "", getFile(args.token).deltaConsumer);
+    /**
+     * Process textdelta-chunk command: ( file-token:string chunk:string ).
+     * <p>
+     * Chunk data is passed to delta reader directly from parser buffer without materializing it.
+     */
+    private void deltaChunk(@NotNull SvnServerParser parser) throws SVNException, IOException {
+      parser.readToken(ListBeginToken.class);
+      final String token = parser.readText();
+      final FileUpdater file = files.get(token);
+      if (file == null) {
+        parser.skipItems();
+        parser.readToken(ListEndToken.class);
+        throw new SVNException(SVNErrorMessage.create(SVNErrorCode.ILLEGAL_TARGET, "Invalid file token: " + token));
+      }
+      // Chunk must be read up to the end even on error to keep parser in consistent state.
+      final SVNException[] error = {null};
+      final boolean hasChunk = parser.readBinary((data, offset, length) -> {
+        if (error[0] == null) {
+          try {
+            file.reader.nextWindow(data, offset, length, "", file.deltaConsumer);
+          } catch (SVNException e) {
+            error[0] = e;
+          }
+        }
+      });
+      if (!hasChunk) {
+        // Parameters list end is already read by parser.
+        throw new SVNException(SVNErrorMessage.create(SVNErrorCode.RA_SVN_MALFORMED_DATA, "Missing chunk data for file token: " + token));
+      }
+      parser.skipItems();
+      parser.readToken(ListEndToken.class);
+      if (error[0] != null) {
+        throw error[0];
+      }
     }
 
     private void deltaEnd(@NotNull SessionContext context, @NotNull TokenParams args) throws SVNException, IOException {
@@ -609,17 +630,22 @@ public final class CommitCmd extends BaseCmd<CommitCmd.CommitParams> {
       final String cmd = parser.readText();
       log.debug("Editor command: {}", cmd);
 
+      final boolean deltaChunk = cmd.equals(TEXTDELTA_CHUNK);
       BaseCmd command = exitCommands.get(cmd);
       if (command == null) {
         context.push(this::editorCommand);
         command = commands.get(cmd);
       }
-      if ((command != null) && (!aborted)) {
+      if ((command != null || deltaChunk) && (!aborted)) {
         try {
-          Object param = MessageParser.parse(command.getArguments(), parser);
-          parser.readToken(ListEndToken.class);
-          //noinspection unchecked
-          command.process(context, param);
+          if (deltaChunk) {
+            deltaChunk(parser);
+          } else {
+            Object param = MessageParser.parse(command.getArguments(), parser);
+            parser.readToken(ListEndToken.class);
+            //noinspection unchecked
+            command.process(context, param);
+          }
         } catch (SVNException e) {
           if (e.getErrorMessage().getErrorCode() != SVNErrorCode.RA_NOT_AUTHORIZED) {
             log.warn("Found error in cmd " + cmd, e);
@@ -631,7 +657,7 @@ public final class CommitCmd extends BaseCmd<CommitCmd.CommitParams> {
           aborted = true;
           throw e;
         }
-      } else if (command != null) {
+      } else if (command != null || deltaChunk) {
         parser.skipItems();
       } else {
         log.error("Unsupported command: {}", cmd);
@@ -0,0 +1,160 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.command;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.http.annotation.ThreadSafe;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.mapdb.DB;
+import org.tmatesoft.svn.core.SVNException;
+import svnserver.context.Shared;
+import svnserver.repository.VcsFile;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache for serialized svndiff data.
+ * <p>
+ * Data is keyed by source and target content hashes and compression flag, so identical
+ * updates from different sessions are served without delta computation.
+ * Cache has in-memory tier and size-bounded tier in separate cache database, so database size limit
+ * is applied only to delta data.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+@ThreadSafe
+public final class DeltaCache implements Shared {
+  @NotNull
+  private static final String CACHE_NAME = "cache.delta";
+  private static final double GIGABYTE = 1024.0 * 1024.0 * 1024.0;
+  private static final int COMMIT_INTERVAL = 100;
+  private static final long MAX_ENTRY_SIZE = 4 * 1024 * 1024;
+
+  @Nullable
+  private final DB cacheDb;
+  @Nullable
+  private final Cache<String, byte[]> memory;
+  @Nullable
+  private final Map<String, byte[]> disk;
+  @NotNull
+  private final AtomicInteger uncommitted = new AtomicInteger();
+  @NotNull
+  private final AtomicLong memoryHits = new AtomicLong();
+  @NotNull
+  private final AtomicLong diskHits = new AtomicLong();
+  @NotNull
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Create cache.
+   *
+   * @param cacheDb    Dedicated cache database for database tier (null - disabled). Database is closed with cache.
+   * @param memorySize Memory tier size in bytes (0 - disabled).
+   * @param diskSize   Database tier size in bytes.
+   */
+  public DeltaCache(@Nullable DB cacheDb, long memorySize, long diskSize) {
+    this.cacheDb = cacheDb;
+    this.memory = memorySize > 0 ? CacheBuilder.newBuilder()
+        .maximumWeight(memorySize)
+        .<String, byte[]>weigher((key, value) -> key.length() + value.length)
+        .build() : null;
+    // Store size limit is applied to whole database: it should not contain other data.
+    this.disk = cacheDb != null ? cacheDb.createHashMap(CACHE_NAME)
+        .expireStoreSize(diskSize / GIGABYTE)
+        .<String, byte[]>makeOrGet() : null;
+  }
+
+  /**
+   * Cache key for delta between files.
+   */
+  @NotNull
+  public static String key(@Nullable VcsFile oldFile, @NotNull VcsFile newFile, boolean compress) throws IOException, SVNException {
+    return (compress ? "svndiff1" : "svndiff0") + ':' + (oldFile == null ? "" : oldFile.getContentHash()) + ':' + newFile.getContentHash();
+  }
+
+  /**
+   * Check, if delta for file with given size can be cached.
+   */
+  public boolean isCacheable(long size) {
+    return (memory != null || disk != null) && size <= MAX_ENTRY_SIZE;
+  }
+
+  @Nullable
+  public byte[] get(@NotNull String key) {
+    if (memory != null) {
+      final byte[] data = memory.getIfPresent(key);
+      if (data != null) {
+        memoryHits.incrementAndGet();
+        return data;
+      }
+    }
+    if (disk != null) {
+      final byte[] data = disk.get(key);
+      if (data != null) {
+        diskHits.incrementAndGet();
+        if (memory != null) {
+          memory.put(key, data);
+        }
+        return data;
+      }
+    }
+    misses.incrementAndGet();
+    return null;
+  }
+
+  public void put(@NotNull String key, @NotNull byte[] data) {
+    if (data.length > MAX_ENTRY_SIZE) {
+      return;
+    }
+    if (memory != null) {
+      memory.put(key, data);
+    }
+    if (disk != null) {
+      disk.put(key, data);
+      if (uncommitted.incrementAndGet() >= COMMIT_INTERVAL) {
+        uncommitted.set(0);
+        //noinspection ConstantConditions
+        cacheDb.commit();
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    if (cacheDb != null) {
+      cacheDb.commit();
+      cacheDb.close();
+    }
+  }
+
+  public long getMemoryHits() {
+    return memoryHits.get();
+  }
+
+  public long getDiskHits() {
+    return diskHits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  @Override
+  public String toString() {
+    return "DeltaCache{" +
+        "memoryHits=" + memoryHits +
+        ", diskHits=" + diskHits +
+        ", misses=" + misses +
+        '}';
+  }
+}
@@ -12,9 +12,6 @@ import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tmatesoft.svn.core.*;
-import org.tmatesoft.svn.core.io.ISVNDeltaConsumer;
-import org.tmatesoft.svn.core.io.diff.SVNDeltaGenerator;
-import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
 import svnserver.StringHelper;
 import svnserver.parser.MessageParser;
 import svnserver.parser.SvnServerParser;
@@ -137,6 +134,8 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
     private final Map<String, SetPathParams> paths = new HashMap<>();
     @NotNull
     private final Deque<HeaderEntry> pathStack = new ArrayDeque<>();
+    @Nullable
+    private ReportWriter output;
 
     @FunctionalInterface
     private interface HeaderWriter {
@@ -162,14 +161,14 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
       public void write() throws IOException, SVNException {
         if (!writed) {
           writed = true;
-          beginWriter.write(context.getWriter());
+          beginWriter.write(getOutput(context));
         }
       }
 
       @Override
       public void close() throws IOException, SVNException {
         if (writed) {
-          endWriter.write(context.getWriter());
+          endWriter.write(getOutput(context));
         }
         pathStack.removeLast();
       }
@@ -179,7 +178,12 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
       for (HeaderEntry entry : pathStack) {
         entry.write();
       }
-      return context.getWriter();
+      return getOutput(context);
+    }
+
+    @NotNull
+    private SvnServerWriter getOutput(@NotNull SessionContext context) throws IOException {
+      return output != null ? output.getWriter() : context.getWriter();
     }
 
     public ReportPipeline(@NotNull DeltaParams params) {
@@ -246,6 +250,17 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
       if (rootParams == null)
         throw new SVNException(SVNErrorMessage.create(SVNErrorCode.STREAM_MALFORMED_DATA));
 
+      output = context.createReportWriter();
+      try {
+        sendDrive(context, rootParams, path, rev);
+        output.finish();
+      } finally {
+        output.cancel();
+        output = null;
+      }
+    }
+
+    private void sendDrive(@NotNull SessionContext context, @NotNull SetPathParams rootParams, @NotNull String path, int rev) throws IOException, SVNException {
       final SvnServerWriter writer = getWriter(context);
       writer
           .listBegin()
@@ -286,12 +301,17 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
 
     protected void sendResponse(@NotNull SessionContext context, @NotNull String path, int rev) throws IOException, SVNException {
       final SvnServerWriter writer = getWriter(context);
-      sendDelta(context, path, rev);
-      writer
-          .listBegin()
-          .word("close-edit")
-          .listBegin().listEnd()
-          .listEnd();
+      writer.cork();
+      try {
+        sendDelta(context, path, rev);
+        writer
+            .listBegin()
+            .word("close-edit")
+            .listBegin().listEnd()
+            .listEnd();
+      } finally {
+        writer.uncork();
+      }
       final SvnServerParser parser = context.getParser();
       parser.readToken(ListBeginToken.class);
 
@@ -480,8 +500,79 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
 
     private void updateFile(@NotNull SessionContext context, @NotNull String wcPath, @Nullable VcsFile prevFile, @NotNull VcsFile newFile, @NotNull String parentTokenId) throws IOException, SVNException {
       final String tokenId = createTokenId();
-      final String md5 = newFile.getMd5();
-      try (final HeaderEntry header = sendEntryHeader(context, wcPath, prevFile, newFile, "file", parentTokenId, tokenId, writer -> writer
+      final VcsCopyFrom copyFrom = prevFile == null ? params.getSendCopyFrom().getCopyFrom(wcPath(""), newFile) : null;
+      final VcsFile oldFile = copyFrom != null ? context.getRepository().getRevisionInfo(copyFrom.getRevision()).getFile(copyFrom.getPath()) : prevFile;
+      final boolean contentChanged = oldFile == null || !newFile.getContentHash().equals(oldFile.getContentHash());
+      final long estimatedSize = contentChanged && params.needDeltas() ? newFile.getSize() : 0;
+      final boolean compress = context.isCompressionEnabled();
+      final DeltaCache deltaCache = context.getRepository().getContext().getShared().get(DeltaCache.class);
+      getWriter(context);
+      // File content and properties are read together with delta, so whole file entry is written by delta writer.
+      //noinspection ConstantConditions
+      output.delta(estimatedSize, writer -> sendFile(writer, deltaCache, wcPath, prevFile, oldFile, newFile, copyFrom, contentChanged, parentTokenId, tokenId, compress));
+    }
+
+    private void sendFile(@NotNull SvnServerWriter writer,
+                          @Nullable DeltaCache deltaCache,
+                          @NotNull String wcPath,
+                          @Nullable VcsFile prevFile,
+                          @Nullable VcsFile oldFile,
+                          @NotNull VcsFile newFile,
+                          @Nullable VcsCopyFrom copyFrom,
+                          boolean contentChanged,
+                          @NotNull String parentTokenId,
+                          @NotNull String tokenId,
+                          boolean compress) throws IOException, SVNException {
+      final String md5;
+      final Map<String, String> oldProps;
+      final Map<String, String> newProps;
+      try {
+        md5 = newFile.getMd5();
+        oldProps = oldFile != null ? oldFile.getProperties() : new HashMap<>();
+        newProps = newFile.getProperties();
+      } catch (SvnForbiddenException ignored) {
+        sendAbsentFile(writer, newFile, parentTokenId);
+        return;
+      }
+      if (prevFile != null && !contentChanged && newProps.equals(oldProps)) {
+        return;
+      }
+      if (prevFile == null) {
+        sendNewEntry(writer, "add-file", wcPath, parentTokenId, tokenId, copyFrom);
+      } else {
+        sendOpenEntry(writer, "open-file", wcPath, parentTokenId, tokenId, prevFile.getLastChange().getId());
+      }
+      sendRevProps(writer, newFile, "file", tokenId);
+      if (contentChanged) {
+        writer
+            .listBegin()
+            .word("apply-textdelta")
+            .listBegin()
+            .string(tokenId)
+            .listBegin()
+            .listEnd()
+            .listEnd()
+            .listEnd();
+        if (params.needDeltas()) {
+          sendFileDelta(writer, deltaCache, tokenId, oldFile, newFile, compress);
+        }
+        writer
+            .listBegin()
+            .word("textdelta-end")
+            .listBegin()
+            .string(tokenId)
+            .listEnd()
+            .listEnd();
+      }
+      for (Map.Entry<String, String> entry : newProps.entrySet()) {
+        if (!entry.getValue().equals(oldProps.remove(entry.getKey()))) {
+          changeProp(writer, "file", tokenId, entry.getKey(), entry.getValue());
+        }
+      }
+      for (String propName : oldProps.keySet()) {
+        changeProp(writer, "file", tokenId, propName, null);
+      }
+      writer
           .listBegin()
           .word("close-file")
           .listBegin()
@@ -490,75 +581,33 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
           .string(md5)
           .listEnd()
           .listEnd()
-          .listEnd())) {
-        final VcsFile oldFile = header.file;
-        if (oldFile == null || !newFile.getContentHash().equals(oldFile.getContentHash())) {
-          final SvnServerWriter writer = getWriter(context);
-          writer
-              .listBegin()
-              .word("apply-textdelta")
-              .listBegin()
-              .string(tokenId)
-              .listBegin()
-              .listEnd()
-              .listEnd()
-              .listEnd();
+          .listEnd();
+    }
 
-          if (params.needDeltas()) {
-            final SVNDeltaGenerator deltaGenerator = new SVNDeltaGenerator();
-            try (InputStream source = openStream(oldFile);
-                 InputStream target = newFile.openStream()) {
-              final boolean compress = context.isCompressionEnabled();
-              final String validateMd5 = deltaGenerator.sendDelta(newFile.getFileName(), source, 0, target, new ISVNDeltaConsumer() {
-                private boolean header = true;
-
-                @Override
-                public void applyTextDelta(String path, String baseChecksum) throws SVNException {
-                }
-
-                @Override
-                public OutputStream textDeltaChunk(String path, SVNDiffWindow diffWindow) throws SVNException {
-                  try (ByteArrayOutputStream stream = new ByteArrayOutputStream()) {
-                    diffWindow.writeTo(stream, header, compress);
-                    header = false;
-                    writer
-                        .listBegin()
-                        .word("textdelta-chunk")
-                        .listBegin()
-                        .string(tokenId)
-                        .binary(stream.toByteArray())
-                        .listEnd()
-                        .listEnd();
-                    return null;
-                  } catch (IOException e) {
-                    throw new SVNException(SVNErrorMessage.UNKNOWN_ERROR_MESSAGE, e);
-                  }
-                }
-
-                @Override
-                public void textDeltaEnd(String path) throws SVNException {
-                }
-              }, true);
-              if (!validateMd5.equals(md5)) {
-                throw new IllegalStateException("MD5 checksum mismatch: some shit happends.");
-              }
-            }
-          }
-          writer
-              .listBegin()
-              .word("textdelta-end")
-              .listBegin()
-              .string(tokenId)
-              .listEnd()
-              .listEnd();
-        }
-        updateProps(context, "file", tokenId, oldFile, newFile);
-      }
+    private static void sendAbsentFile(@NotNull SvnServerWriter writer, @NotNull VcsFile newFile, @NotNull String parentTokenId) throws IOException {
+      writer
+          .listBegin()
+          .word("absent-file")
+          .listBegin()
+          .string(newFile.getFileName())
+          .string(parentTokenId)
+          .listEnd()
+          .listEnd();
     }
 
-    @NotNull
-    private InputStream openStream(@Nullable VcsFile file) throws IOException, SVNException {
-      return file == null ? new ByteArrayInputStream(new byte[0]) : file.openStream();
+    private static void sendFileDelta(@NotNull SvnServerWriter writer, @Nullable DeltaCache deltaCache, @NotNull String tokenId, @Nullable VcsFile oldFile, @NotNull VcsFile newFile, boolean compress) throws IOException, SVNException {
+      FileDelta.write(deltaCache, oldFile, newFile, compress, (data, offset, length) -> sendDeltaChunk(writer, tokenId, data, offset, length));
+    }
+
+    private static void sendDeltaChunk(@NotNull SvnServerWriter writer, @NotNull String tokenId, @NotNull byte[] data, int offset, int length) throws IOException {
+      writer
+          .listBegin()
+          .word("textdelta-chunk")
+          .listBegin()
+          .string(tokenId)
+          .binary(data, offset, length)
+          .listEnd()
+          .listEnd();
     }
 
     @NotNull
@@ -611,14 +660,7 @@ public final class DeltaCmd extends BaseCmd<DeltaParams> {
         try {
           updateFile(context, wcPath, oldFile, newFile, parentTokenId);
         } catch (SvnForbiddenException ignored) {
-          getWriter(context)
-              .listBegin()
-              .word("absent-file")
-              .listBegin()
-              .string(newFile.getFileName())
-              .string(parentTokenId)
-              .listEnd()
-              .listEnd();
+          sendAbsentFile(getWriter(context), newFile, parentTokenId);
         }
       }
     }
@@ -0,0 +1,106 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.command;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.io.ISVNDeltaConsumer;
+import org.tmatesoft.svn.core.io.diff.SVNDeltaGenerator;
+import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
+import svnserver.parser.BinaryConsumer;
+import svnserver.repository.VcsFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Svndiff writer for file versions.
+ * <p>
+ * Delta is taken from {@link DeltaCache} when possible, otherwise it is generated and stored in cache.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class FileDelta {
+  private static final int CHUNK_SIZE = 100 * 1024;
+
+  private FileDelta() {
+  }
+
+  /**
+   * Write svndiff between file versions.
+   *
+   * @param deltaCache Delta cache (null - cache is not used).
+   * @param oldFile    Delta base (null - full text delta).
+   * @param newFile    Target file.
+   * @param compress   Use svndiff1 format.
+   * @param consumer   Svndiff data consumer. Client parses svndiff as stream, so chunks are not required to match windows.
+   */
+  public static void write(@Nullable DeltaCache deltaCache, @Nullable VcsFile oldFile, @NotNull VcsFile newFile, boolean compress, @NotNull BinaryConsumer consumer) throws IOException, SVNException {
+    final String cacheKey = deltaCache != null && deltaCache.isCacheable(newFile.getSize()) ? DeltaCache.key(oldFile, newFile, compress) : null;
+    if (cacheKey != null) {
+      final byte[] cached = deltaCache.get(cacheKey);
+      if (cached != null) {
+        for (int offset = 0; offset < cached.length; offset += CHUNK_SIZE) {
+          consumer.accept(cached, offset, Math.min(CHUNK_SIZE, cached.length - offset));
+        }
+        return;
+      }
+    }
+    final ByteArrayOutputStream svndiff = cacheKey != null ? new ByteArrayOutputStream() : null;
+    final BinaryConsumer output = svndiff == null ? consumer : (data, offset, length) -> {
+      svndiff.write(data, offset, length);
+      consumer.accept(data, offset, length);
+    };
+    final String validateMd5;
+    if (oldFile == null) {
+      // No delta base: send new data windows without delta generator.
+      try (InputStream target = newFile.openStream()) {
+        validateMd5 = FullTextDelta.write(target, compress, output);
+      }
+    } else {
+      final SVNDeltaGenerator deltaGenerator = new SVNDeltaGenerator();
+      try (InputStream source = oldFile.openStream();
+           InputStream target = newFile.openStream()) {
+        validateMd5 = deltaGenerator.sendDelta(newFile.getFileName(), source, 0, target, new ISVNDeltaConsumer() {
+          private boolean header = true;
+
+          @Override
+          public void applyTextDelta(String path, String baseChecksum) throws SVNException {
+          }
+
+          @Override
+          public OutputStream textDeltaChunk(String path, SVNDiffWindow diffWindow) throws SVNException {
+            try (ByteArrayOutputStream stream = new ByteArrayOutputStream()) {
+              diffWindow.writeTo(stream, header, compress);
+              header = false;
+              final byte[] data = stream.toByteArray();
+              output.accept(data, 0, data.length);
+              return null;
+            } catch (IOException e) {
+              throw new SVNException(SVNErrorMessage.UNKNOWN_ERROR_MESSAGE, e);
+            }
+          }
+
+          @Override
+          public void textDeltaEnd(String path) throws SVNException {
+          }
+        }, true);
+      }
+    }
+    if (!validateMd5.equals(newFile.getMd5())) {
+      throw new IllegalStateException("MD5 checksum mismatch: some shit happends.");
+    }
+    if (svndiff != null) {
+      deltaCache.put(cacheKey, svndiff.toByteArray());
+    }
+  }
+}
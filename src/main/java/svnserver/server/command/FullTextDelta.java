@@ -0,0 +1,174 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.command;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tmatesoft.svn.core.SVNException;
+import svnserver.HashHelper;
+import svnserver.StringHelper;
+import svnserver.parser.BinaryConsumer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.zip.Deflater;
+
+/**
+ * Svndiff writer for file content without delta base.
+ * <p>
+ * Every window contains only new data instruction, so delta generator is not needed.
+ * For svndiff1 zlib compression is disabled for the rest of file after first window,
+ * if content looks incompressible.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class FullTextDelta {
+  private static final int WINDOW_SIZE = 100 * 1024;
+  // Same threshold as in Subversion: smaller sections are not compressed.
+  private static final int MIN_COMPRESS_SIZE = 512;
+  private static final int INCOMPRESSIBLE_PERCENT = 90;
+  private static final int OP_NEW_DATA = 0x80;
+  private static final int MAX_INLINE_LENGTH = 0x3F;
+
+  private FullTextDelta() {
+  }
+
+  /**
+   * Write svndiff for stream content.
+   *
+   * @param stream   File content.
+   * @param compress Use svndiff1 format.
+   * @param consumer Svndiff data consumer. Called once per window, header is passed with first window.
+   * @return Content md5.
+   */
+  @NotNull
+  public static String write(@NotNull InputStream stream, boolean compress, @NotNull BinaryConsumer consumer) throws IOException, SVNException {
+    final MessageDigest digest = HashHelper.md5();
+    final byte[] data = new byte[WINDOW_SIZE];
+    final ByteArrayOutputStream window = new ByteArrayOutputStream();
+    final Deflater deflater = compress ? new Deflater() : null;
+    try {
+      window.write('S');
+      window.write('V');
+      window.write('N');
+      window.write(compress ? 1 : 0);
+      boolean zlib = compress;
+      boolean first = true;
+      while (true) {
+        final int length = readWindow(stream, data);
+        if (length == 0) {
+          break;
+        }
+        digest.update(data, 0, length);
+
+        final byte[] instructions = newDataInstruction(length);
+        final byte[] instructionSection;
+        final byte[] dataSection;
+        if (compress) {
+          instructionSection = encodeSection(instructions, instructions.length, null);
+          dataSection = encodeSection(data, length, zlib ? deflater : null);
+          if (first && zlib && length >= MIN_COMPRESS_SIZE && (long) dataSection.length * 100 > (long) length * INCOMPRESSIBLE_PERCENT) {
+            zlib = false;
+          }
+        } else {
+          instructionSection = instructions;
+          dataSection = null;
+        }
+        writeInt(window, 0); // source view offset
+        writeInt(window, 0); // source view length
+        writeInt(window, length); // target view length
+        writeInt(window, instructionSection.length);
+        writeInt(window, dataSection != null ? dataSection.length : length);
+        window.write(instructionSection);
+        if (dataSection != null) {
+          window.write(dataSection);
+        } else {
+          window.write(data, 0, length);
+        }
+        flush(window, consumer);
+        first = false;
+      }
+      if (window.size() > 0) {
+        flush(window, consumer);
+      }
+    } finally {
+      if (deflater != null) {
+        deflater.end();
+      }
+    }
+    return StringHelper.toHex(digest.digest());
+  }
+
+  private static void flush(@NotNull ByteArrayOutputStream window, @NotNull BinaryConsumer consumer) throws IOException, SVNException {
+    consumer.accept(window.toByteArray(), 0, window.size());
+    window.reset();
+  }
+
+  private static int readWindow(@NotNull InputStream stream, @NotNull byte[] data) throws IOException {
+    int length = 0;
+    while (length < data.length) {
+      final int size = stream.read(data, length, data.length - length);
+      if (size < 0) {
+        break;
+      }
+      length += size;
+    }
+    return length;
+  }
+
+  @NotNull
+  private static byte[] newDataInstruction(int length) {
+    final ByteArrayOutputStream result = new ByteArrayOutputStream();
+    if (length <= MAX_INLINE_LENGTH) {
+      result.write(OP_NEW_DATA | length);
+    } else {
+      result.write(OP_NEW_DATA);
+      writeInt(result, length);
+    }
+    return result.toByteArray();
+  }
+
+  /**
+   * Encode svndiff1 section: original length and zlib data, or raw data if compression is useless.
+   */
+  @NotNull
+  private static byte[] encodeSection(@NotNull byte[] data, int length, @Nullable Deflater deflater) {
+    final ByteArrayOutputStream result = new ByteArrayOutputStream();
+    writeInt(result, length);
+    if (deflater != null && length >= MIN_COMPRESS_SIZE) {
+      deflater.reset();
+      deflater.setInput(data, 0, length);
+      deflater.finish();
+      final byte[] buffer = new byte[length];
+      int compressed = 0;
+      while (!deflater.finished() && compressed < buffer.length) {
+        compressed += deflater.deflate(buffer, compressed, buffer.length - compressed);
+      }
+      if (deflater.finished() && compressed < length) {
+        result.write(buffer, 0, compressed);
+        return result.toByteArray();
+      }
+    }
+    result.write(data, 0, length);
+    return result.toByteArray();
+  }
+
+  private static void writeInt(@NotNull ByteArrayOutputStream stream, int value) {
+    int shift = 28;
+    while (shift > 0 && (value >>> shift) == 0) {
+      shift -= 7;
+    }
+    while (shift > 0) {
+      stream.write(0x80 | ((value >>> shift) & 0x7F));
+      shift -= 7;
+    }
+    stream.write(value & 0x7F);
+  }
+}
@@ -0,0 +1,188 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.command;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import svnserver.parser.SvnServerWriter;
+import svnserver.repository.VcsCopyFrom;
+import svnserver.repository.VcsFile;
+import svnserver.repository.VcsRepository;
+import svnserver.repository.VcsRevision;
+import svnserver.server.SessionContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Get file revisions with content deltas (used by blame).
+ * <p><pre>
+ * get-file-revs
+ *    params:   ( path:string [ start-rev:number ] [ end-rev:number ]
+ *                ? include-merged-revisions:bool )
+ *    Before sending response, server sends file-rev entries, ending with "done".
+ *    file-rev: ( path:string rev:number rev-props:proplist
+ *                file-props:propdelta ? merged-revision:bool )
+ *              | done
+ *    After each file-rev, the file delta is sent as one or more strings,
+ *    terminated by the empty string.  If there is no delta, server just sends
+ *    the terminator.
+ *    response: ( )
+ * </pre>
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class GetFileRevsCmd extends BaseCmd<GetFileRevsCmd.Params> {
+  public static class Params {
+    @NotNull
+    private final String path;
+    @NotNull
+    private final int[] startRev;
+    @NotNull
+    private final int[] endRev;
+    /**
+     * TODO: issue #26.
+     */
+    private final boolean includeMergedRevisions;
+
+    public Params(@NotNull String path, @NotNull int[] startRev, @NotNull int[] endRev, boolean includeMergedRevisions) {
+      this.path = path;
+      this.startRev = startRev;
+      this.endRev = endRev;
+      this.includeMergedRevisions = includeMergedRevisions;
+    }
+  }
+
+  @NotNull
+  @Override
+  public Class<Params> getArguments() {
+    return Params.class;
+  }
+
+  @Override
+  protected void processCommand(@NotNull SessionContext context, @NotNull Params args) throws IOException, SVNException {
+    final SvnServerWriter writer = context.getWriter();
+    final VcsRepository repository = context.getRepository();
+    final int head = repository.getLatestRevision().getId();
+    final int startRev = getRevision(args.startRev, 0);
+    final int endRev = getRevision(args.endRev, head);
+    final int minRev = Math.min(startRev, endRev);
+    final int maxRev = Math.max(startRev, endRev);
+    if (maxRev > head) {
+      writer.word("done");
+      throw new SVNException(SVNErrorMessage.create(SVNErrorCode.FS_NO_SUCH_REVISION, "No such revision " + maxRev));
+    }
+    final String fullPath = context.getRepositoryPath(args.path);
+    final VcsFile lastFile = repository.getRevisionInfo(maxRev).getFile(fullPath);
+    if (lastFile == null) {
+      writer.word("done");
+      throw new SVNException(SVNErrorMessage.create(SVNErrorCode.FS_NOT_FOUND, "File not found: " + fullPath + "@" + maxRev));
+    }
+    if (lastFile.isDirectory()) {
+      writer.word("done");
+      throw new SVNException(SVNErrorMessage.create(SVNErrorCode.FS_NOT_FILE, fullPath + " is not a file in revision " + maxRev));
+    }
+
+    final List<VcsCopyFrom> history = getHistory(repository, fullPath, minRev, maxRev);
+    final boolean compress = context.isCompressionEnabled();
+    final DeltaCache deltaCache = repository.getContext().getShared().get(DeltaCache.class);
+    writer.cork();
+    try {
+      VcsFile prevFile = null;
+      for (int i = history.size() - 1; i >= 0; --i) {
+        final VcsCopyFrom entry = history.get(i);
+        final VcsRevision revisionInfo = repository.getRevisionInfo(entry.getRevision());
+        final VcsFile file = revisionInfo.getFile(entry.getPath());
+        if (file == null) {
+          throw new IllegalStateException("File " + entry.getPath() + " not found in revision " + entry.getRevision());
+        }
+        writer
+            .listBegin()
+            .string(entry.getPath())
+            .number(entry.getRevision())
+            .writeMap(revisionInfo.getProperties(true));
+        writePropDelta(writer, prevFile, file);
+        writer
+            .bool(false)
+            .listEnd();
+        if (prevFile == null || !prevFile.getContentHash().equals(file.getContentHash())) {
+          FileDelta.write(deltaCache, prevFile, file, compress, writer::binary);
+        }
+        writer.binary(new byte[0]);
+        prevFile = file;
+      }
+      writer
+          .word("done");
+      writer
+          .listBegin()
+          .word("success")
+          .listBegin()
+          .listEnd()
+          .listEnd();
+    } finally {
+      writer.uncork();
+    }
+  }
+
+  /**
+   * Collect file revisions by path history, following copies.
+   *
+   * @return File changes from newer to older. Last item is file state at minimal revision.
+   */
+  @NotNull
+  private static List<VcsCopyFrom> getHistory(@NotNull VcsRepository repository, @NotNull String fullPath, int minRev, int maxRev) {
+    final List<VcsCopyFrom> result = new ArrayList<>();
+    String path = fullPath;
+    int revision = repository.getLastChange(path, maxRev);
+    while (revision >= 0) {
+      result.add(new VcsCopyFrom(revision, path));
+      if (revision <= minRev) {
+        break;
+      }
+      int prevRevision = repository.getLastChange(path, revision - 1);
+      if (prevRevision < 0) {
+        final VcsCopyFrom copyFrom = repository.getCopyFrom(path, revision);
+        if (copyFrom == null) {
+          break;
+        }
+        path = copyFrom.getPath();
+        prevRevision = repository.getLastChange(path, copyFrom.getRevision());
+      }
+      revision = prevRevision;
+    }
+    return result;
+  }
+
+  private static void writePropDelta(@NotNull SvnServerWriter writer, @Nullable VcsFile oldFile, @NotNull VcsFile newFile) throws IOException, SVNException {
+    final Map<String, String> oldProps = oldFile != null ? new HashMap<>(oldFile.getProperties()) : new HashMap<>();
+    writer.listBegin();
+    for (Map.Entry<String, String> entry : newFile.getProperties().entrySet()) {
+      if (!entry.getValue().equals(oldProps.remove(entry.getKey()))) {
+        writer
+            .listBegin()
+            .string(entry.getKey())
+            .listBegin().string(entry.getValue()).listEnd()
+            .listEnd();
+      }
+    }
+    for (String propName : oldProps.keySet()) {
+      writer
+          .listBegin()
+          .string(propName)
+          .listBegin().listEnd()
+          .listEnd();
+    }
+    writer.listEnd();
+  }
+}
@@ -13,6 +13,7 @@ import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
 import svnserver.parser.SvnServerWriter;
 import svnserver.repository.VcsCopyFrom;
+import svnserver.repository.VcsRepository;
 import svnserver.server.SessionContext;
 
 import java.io.IOException;
@@ -62,23 +63,18 @@ public final class GetLocationSegmentsCmd extends BaseCmd<GetLocationSegmentsCmd
       writer.word("done");
       throw new SVNException(SVNErrorMessage.create(SVNErrorCode.UNKNOWN, "Invalid revision range: peg: " + pegRev + ", start: " + startRev + ", end " + endRev));
     }
+    final VcsRepository repository = context.getRepository();
     String fullPath = context.getRepositoryPath(args.path);
-    final int lastChange = context.getRepository().getLastChange(fullPath, pegRev);
+    final int lastChange = repository.getLastChange(fullPath, pegRev);
     if (lastChange < 0) {
       writer.word("done");
       throw new SVNException(SVNErrorMessage.create(SVNErrorCode.FS_NOT_FOUND, "File not found: " + fullPath + "@" + pegRev));
     }
+    // Every segment is path existence interval: interval start and copy source are taken from history index.
     int maxRev = pegRev;
     while (maxRev >= endRev) {
-      int minRev = maxRev;
-      while (true) {
-        int change = context.getRepository().getLastChange(fullPath, minRev - 1);
-        if (change >= 0) {
-          minRev = change;
-        } else {
-          break;
-        }
-      }
+      final int firstChange = repository.getFirstChange(fullPath, maxRev);
+      final int minRev = firstChange < 0 ? maxRev : firstChange;
       if (minRev <= startRev) {
         writer
             .listBegin()
@@ -87,7 +83,7 @@ public final class GetLocationSegmentsCmd extends BaseCmd<GetLocationSegmentsCmd
             .listBegin().string(fullPath).listEnd()
             .listEnd();
       }
-      final VcsCopyFrom copyFrom = context.getRepository().getRevisionInfo(minRev).getCopyFrom(fullPath);
+      final VcsCopyFrom copyFrom = repository.getCopyFrom(fullPath, minRev);
       if (copyFrom != null) {
         maxRev = copyFrom.getRevision();
         fullPath = copyFrom.getPath();
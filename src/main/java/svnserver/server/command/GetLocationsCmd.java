@@ -13,6 +13,7 @@ import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
 import svnserver.parser.SvnServerWriter;
 import svnserver.repository.VcsCopyFrom;
+import svnserver.repository.VcsRepository;
 import svnserver.server.SessionContext;
 
 import java.io.IOException;
@@ -58,42 +59,38 @@ public final class GetLocationsCmd extends BaseCmd<GetLocationsCmd.Params> {
 
     final int[] sortedRevs = Arrays.copyOf(args.revs, args.revs.length);
     Arrays.sort(sortedRevs);
+    final VcsRepository repository = context.getRepository();
     String fullPath = context.getRepositoryPath(args.path);
-    int lastChange = context.getRepository().getLastChange(fullPath, args.pegRev);
+    final int lastChange = repository.getLastChange(fullPath, args.pegRev);
     if (lastChange < 0) {
       writer.word("done");
       throw new SVNException(SVNErrorMessage.create(SVNErrorCode.FS_NOT_FOUND, "File not found: " + fullPath + "@" + args.pegRev));
     }
+    // Start of current path existence interval.
+    int firstChange = repository.getFirstChange(fullPath, lastChange);
     for (int i = sortedRevs.length - 1; i >= 0; --i) {
       int revision = sortedRevs[i];
       if (revision > args.pegRev) {
         writer.word("done");
         throw new SVNException(SVNErrorMessage.create(SVNErrorCode.FS_NOT_FOUND, "File not found: " + fullPath + "@" + args.pegRev + " at revision " + revision));
       }
-      while ((revision < lastChange) && (lastChange >= 0)) {
-        int change = context.getRepository().getLastChange(fullPath, lastChange - 1);
-        if (change >= 0) {
-          lastChange = change;
-          continue;
-        }
-        final VcsCopyFrom copyFrom = context.getRepository().getRevisionInfo(lastChange).getCopyFrom(fullPath);
+      while ((revision < firstChange) && (firstChange >= 0)) {
+        final VcsCopyFrom copyFrom = repository.getCopyFrom(fullPath, firstChange);
         if (copyFrom != null) {
-          lastChange = copyFrom.getRevision();
           fullPath = copyFrom.getPath();
+          final int change = repository.getFirstChange(fullPath, copyFrom.getRevision());
+          firstChange = change < 0 ? copyFrom.getRevision() : change;
         } else {
-          lastChange = -1;
-          break;
+          firstChange = -1;
         }
       }
-      if (lastChange < 0)
+      if (firstChange < 0)
         break;
-      if (revision >= lastChange) {
-        writer
-            .listBegin()
-            .number(revision)
-            .string(fullPath)
-            .listEnd();
-      }
+      writer
+          .listBegin()
+          .number(revision)
+          .string(fullPath)
+          .listEnd();
     }
     writer
         .word("done");
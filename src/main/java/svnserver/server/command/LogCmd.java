@@ -8,20 +8,19 @@
 package svnserver.server.command;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.tmatesoft.svn.core.SVNErrorCode;
 import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
 import svnserver.parser.SvnServerWriter;
 import svnserver.repository.VcsCopyFrom;
 import svnserver.repository.VcsLogEntry;
+import svnserver.repository.VcsRepository;
 import svnserver.repository.VcsRevision;
 import svnserver.server.SessionContext;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.ListIterator;
-import java.util.Map;
+import java.util.*;
 
 /**
  * Change current path in repository.
@@ -52,6 +51,8 @@ import java.util.Map;
  * @author a.navrotskiy
  */
 public final class LogCmd extends BaseCmd<LogCmd.Params> {
+  private static final long FLUSH_INTERVAL = 200;
+
   public static class Params {
     @NotNull
     private final String[] targetPath;
@@ -109,102 +110,145 @@ public final class LogCmd extends BaseCmd<LogCmd.Params> {
       throw new SVNException(SVNErrorMessage.create(SVNErrorCode.FS_NO_SUCH_REVISION, "No such revision " + Math.max(startRev, endRev)));
     }
 
-    final List<VcsRevision> log;
+    final LogIterator log;
     if (startRev >= endRev) {
-      log = getLog(context, args, startRev, endRev, args.limit);
+      log = new DescendingLog(context, args, startRev, endRev);
     } else {
-      final List<VcsRevision> logReverse = getLog(context, args, endRev, startRev, -1);
-      final int minIndex = args.limit <= 0 ? 0 : Math.max(0, logReverse.size() - args.limit);
-      log = new ArrayList<>(logReverse.size() - minIndex);
-      for (int i = logReverse.size() - 1; i >= minIndex; i--) {
-        log.add(logReverse.get(i));
-      }
+      log = new AscendingLog(context, args, endRev, startRev);
     }
-    for (VcsRevision revisionInfo : log) {
-      writer
-          .listBegin()
-          .listBegin();
-      if (args.changedPaths) {
-        final Map<String, ? extends VcsLogEntry> changes = revisionInfo.getChanges();
-        writer.separator();
-        for (Map.Entry<String, ? extends VcsLogEntry> entry : changes.entrySet()) {
-          final VcsLogEntry logEntry = entry.getValue();
-          final char change = logEntry.getChange();
-          if (change == 0) continue;
-          writer
-              .listBegin()
-              .string(entry.getKey()) // Path
-              .word(change)
-              .listBegin();
-          final VcsCopyFrom copyFrom = logEntry.getCopyFrom();
-          if (copyFrom != null) {
-            writer.string(copyFrom.getPath());
-            writer.number(copyFrom.getRevision());
-          }
-          writer.listEnd()
-              .listBegin()
-              .string(logEntry.getKind().toString())
-              .bool(logEntry.isContentModified()) // text-mods
-              .bool(logEntry.isPropertyModified()) // prop-mods
-              .listEnd()
-              .listEnd()
-              .separator();
+    writer.cork();
+    try {
+      // Log entries are written as soon as they are found: first entry and then
+      // buffered entries are flushed periodically, so client doesn't wait for whole history walk.
+      long flushTime = System.currentTimeMillis();
+      int count = 0;
+      while (args.limit <= 0 || count < args.limit) {
+        final VcsRevision revisionInfo = log.next();
+        if (revisionInfo == null) {
+          break;
+        }
+        writeRevision(writer, args, revisionInfo);
+        count++;
+        final long now = System.currentTimeMillis();
+        if (count == 1 || now - flushTime >= FLUSH_INTERVAL) {
+          writer.flush();
+          flushTime = now;
         }
       }
-
-      final Map<String, String> revProps = revisionInfo.getProperties(false);
-
-      writer.listEnd()
-          .number(revisionInfo.getId())
-          .listBegin().stringNullable(revisionInfo.getAuthor()).listEnd()
-          .listBegin().stringNullable(revisionInfo.getDateString()).listEnd()
-          .listBegin().stringNullable(revisionInfo.getLog()).listEnd()
-          .bool(false)
-          .bool(false)
-          .number(revProps.size())
-          .writeMap(revProps)
+      writer
+          .word("done");
+      writer
+          .listBegin()
+          .word("success")
+          .listBegin()
           .listEnd()
-          .separator();
+          .listEnd();
+    } finally {
+      writer.uncork();
     }
-    writer
-        .word("done");
+  }
+
+  private static void writeRevision(@NotNull SvnServerWriter writer, @NotNull Params args, @NotNull VcsRevision revisionInfo) throws IOException, SVNException {
     writer
         .listBegin()
-        .word("success")
-        .listBegin()
+        .listBegin();
+    if (args.changedPaths) {
+      final Map<String, ? extends VcsLogEntry> changes = revisionInfo.getChanges();
+      writer.separator();
+      for (Map.Entry<String, ? extends VcsLogEntry> entry : changes.entrySet()) {
+        final VcsLogEntry logEntry = entry.getValue();
+        final char change = logEntry.getChange();
+        if (change == 0) continue;
+        writer
+            .listBegin()
+            .string(entry.getKey()) // Path
+            .word(change)
+            .listBegin();
+        final VcsCopyFrom copyFrom = logEntry.getCopyFrom();
+        if (copyFrom != null) {
+          writer.string(copyFrom.getPath());
+          writer.number(copyFrom.getRevision());
+        }
+        writer.listEnd()
+            .listBegin()
+            .string(logEntry.getKind().toString())
+            .bool(logEntry.isContentModified()) // text-mods
+            .bool(logEntry.isPropertyModified()) // prop-mods
+            .listEnd()
+            .listEnd()
+            .separator();
+      }
+    }
+
+    final Map<String, String> revProps = revisionInfo.getProperties(false);
+
+    writer.listEnd()
+        .number(revisionInfo.getId())
+        .listBegin().stringNullable(revisionInfo.getAuthor()).listEnd()
+        .listBegin().stringNullable(revisionInfo.getDateString()).listEnd()
+        .listBegin().stringNullable(revisionInfo.getLog()).listEnd()
+        .bool(false)
+        .bool(false)
+        .number(revProps.size())
+        .writeMap(revProps)
         .listEnd()
-        .listEnd();
+        .separator();
+  }
+
+  private interface LogIterator {
+    /**
+     * Get next log revision.
+     *
+     * @return Revision or null, if log is finished.
+     */
+    @Nullable
+    VcsRevision next() throws IOException, SVNException;
   }
 
-  private List<VcsRevision> getLog(@NotNull SessionContext context, @NotNull Params args, int endRev, int startRev, int limit) throws IOException, SVNException {
-    final List<VcsCopyFrom> targetPaths = new ArrayList<>();
-    int revision = -1;
-    for (String target : args.targetPath) {
-      final String fullTargetPath = context.getRepositoryPath(target);
-      final int lastChange = context.getRepository().getLastChange(fullTargetPath, endRev);
-      if (lastChange >= startRev) {
-        targetPaths.add(new VcsCopyFrom(lastChange, fullTargetPath));
-        revision = Math.max(revision, lastChange);
+  /**
+   * Log from newer revisions to older revisions.
+   */
+  private static final class DescendingLog implements LogIterator {
+    @NotNull
+    private final VcsRepository repository;
+    @NotNull
+    private final List<VcsCopyFrom> targetPaths = new ArrayList<>();
+    private final boolean strictNode;
+    private final int minRev;
+    private int revision = -1;
+
+    private DescendingLog(@NotNull SessionContext context, @NotNull Params args, int maxRev, int minRev) throws SVNException {
+      this.repository = context.getRepository();
+      this.strictNode = args.strictNode;
+      this.minRev = minRev;
+      for (String target : args.targetPath) {
+        final String fullTargetPath = context.getRepositoryPath(target);
+        final int lastChange = repository.getLastChange(fullTargetPath, maxRev);
+        if (lastChange >= minRev) {
+          targetPaths.add(new VcsCopyFrom(lastChange, fullTargetPath));
+          revision = Math.max(revision, lastChange);
+        }
       }
     }
-    final List<VcsRevision> result = new ArrayList<>();
-    int logLimit = limit;
-    while (revision >= startRev) {
-      final VcsRevision revisionInfo = context.getRepository().getRevisionInfo(revision);
-      result.add(revisionInfo);
-      if (--logLimit == 0) break;
 
+    @Nullable
+    @Override
+    public VcsRevision next() throws IOException, SVNException {
+      if (revision < minRev) {
+        return null;
+      }
+      final VcsRevision revisionInfo = repository.getRevisionInfo(revision);
       int nextRevision = -1;
       final ListIterator<VcsCopyFrom> iter = targetPaths.listIterator();
       while (iter.hasNext()) {
         final VcsCopyFrom entry = iter.next();
         if (revision == entry.getRevision()) {
-          final int lastChange = context.getRepository().getLastChange(entry.getPath(), revision - 1);
+          final int lastChange = repository.getLastChange(entry.getPath(), revision - 1);
           if (lastChange >= revision) {
             throw new IllegalStateException();
           }
           if (lastChange < 0) {
-            if (args.strictNode) {
+            if (strictNode) {
               iter.remove();
               continue;
             }
@@ -219,10 +263,118 @@ public final class LogCmd extends BaseCmd<LogCmd.Params> {
             iter.set(new VcsCopyFrom(lastChange, entry.getPath()));
             nextRevision = Math.max(nextRevision, lastChange);
           }
+        } else {
+          nextRevision = Math.max(nextRevision, entry.getRevision());
         }
       }
       revision = nextRevision;
+      return revisionInfo;
+    }
+  }
+
+  /**
+   * Log from older revisions to newer revisions.
+   * <p>
+   * Copy points of every target are found by walking back over path existence intervals,
+   * after that revisions are walked forward by path history.
+   */
+  private static final class AscendingLog implements LogIterator {
+    @NotNull
+    private final VcsRepository repository;
+    @NotNull
+    private final List<TargetWalker> targets = new ArrayList<>();
+
+    private AscendingLog(@NotNull SessionContext context, @NotNull Params args, int maxRev, int minRev) throws SVNException {
+      this.repository = context.getRepository();
+      for (String target : args.targetPath) {
+        final Deque<Segment> segments = new ArrayDeque<>();
+        String path = context.getRepositoryPath(target);
+        int last = repository.getLastChange(path, maxRev);
+        while (last >= minRev) {
+          final int first = repository.getFirstChange(path, last);
+          // Copy source can be absent in copy revision.
+          final int begin = first < 0 ? last : first;
+          segments.addFirst(new Segment(path, Math.max(begin, minRev), last));
+          if (begin < minRev || args.strictNode) {
+            break;
+          }
+          final VcsCopyFrom copyFrom = repository.getCopyFrom(path, begin);
+          if (copyFrom == null) {
+            break;
+          }
+          path = copyFrom.getPath();
+          last = copyFrom.getRevision();
+        }
+        final TargetWalker walker = new TargetWalker(segments);
+        walker.advance(repository);
+        targets.add(walker);
+      }
+    }
+
+    @Nullable
+    @Override
+    public VcsRevision next() throws IOException, SVNException {
+      int revision = -1;
+      for (TargetWalker target : targets) {
+        if (target.revision >= 0 && (revision < 0 || target.revision < revision)) {
+          revision = target.revision;
+        }
+      }
+      if (revision < 0) {
+        return null;
+      }
+      for (TargetWalker target : targets) {
+        if (target.revision == revision) {
+          target.advance(repository);
+        }
+      }
+      return repository.getRevisionInfo(revision);
+    }
+  }
+
+  /**
+   * Path existence interval: log revisions are path changes in interval and interval end.
+   */
+  private static final class Segment {
+    @NotNull
+    private final String path;
+    private final int first;
+    private final int last;
+
+    private Segment(@NotNull String path, int first, int last) {
+      this.path = path;
+      this.first = first;
+      this.last = last;
+    }
+
+    private int nextRevision(@NotNull VcsRepository repository, int afterRevision) {
+      if (afterRevision >= last) {
+        return -1;
+      }
+      final int next = repository.getNextChange(path, Math.max(afterRevision, first - 1));
+      return next < 0 || next > last ? last : next;
+    }
+  }
+
+  private static final class TargetWalker {
+    @NotNull
+    private final Deque<Segment> segments;
+    private int revision = -1;
+
+    private TargetWalker(@NotNull Deque<Segment> segments) {
+      this.segments = segments;
+    }
+
+    private void advance(@NotNull VcsRepository repository) {
+      while (!segments.isEmpty()) {
+        final int next = segments.element().nextRevision(repository, revision);
+        if (next >= 0) {
+          revision = next;
+          return;
+        }
+        segments.remove();
+      }
+      revision = -1;
     }
-    return result;
   }
 }
@@ -47,14 +47,18 @@ public class ReplayCmd extends BaseCmd<ReplayCmd.Params> {
 
   @Override
   protected void processCommand(@NotNull SessionContext context, @NotNull Params args) throws IOException, SVNException {
-    replayRevision(context, args.revision, true);
-
     final SvnServerWriter writer = context.getWriter();
-    writer
-        .listBegin()
-        .word("success")
-        .listBegin().listEnd()
-        .listEnd();
+    writer.cork();
+    try {
+      replayRevision(context, args.revision, true);
+      writer
+          .listBegin()
+          .word("success")
+          .listBegin().listEnd()
+          .listEnd();
+    } finally {
+      writer.uncork();
+    }
   }
 
   public static void replayRevision(@NotNull SessionContext context, int revision, boolean sendDeltas) throws IOException, SVNException {
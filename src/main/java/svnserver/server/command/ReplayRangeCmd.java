@@ -59,29 +59,34 @@ public class ReplayRangeCmd extends BaseCmd<ReplayRangeCmd.Params> {
       throw new SVNException(SVNErrorMessage.create(SVNErrorCode.UNKNOWN, "Invalid revision range: start: " + args.startRev + ", end " + args.endRev));
     }
     final SvnServerWriter writer = context.getWriter();
-    for (int revision = args.startRev; revision <= args.endRev; revision++) {
-      final VcsRevision revisionInfo = context.getRepository().getRevisionInfo(revision);
-      writer
-          .listBegin()
-          .word("revprops")
-          .listBegin();
-      for (Map.Entry<String, String> entry : revisionInfo.getProperties(true).entrySet()) {
+    writer.cork();
+    try {
+      for (int revision = args.startRev; revision <= args.endRev; revision++) {
+        final VcsRevision revisionInfo = context.getRepository().getRevisionInfo(revision);
         writer
             .listBegin()
-            .string(entry.getKey())
-            .string(entry.getValue())
+            .word("revprops")
+            .listBegin();
+        for (Map.Entry<String, String> entry : revisionInfo.getProperties(true).entrySet()) {
+          writer
+              .listBegin()
+              .string(entry.getKey())
+              .string(entry.getValue())
+              .listEnd();
+        }
+        writer
+            .listEnd()
             .listEnd();
+        ReplayCmd.replayRevision(context, revision, true);
       }
       writer
-          .listEnd()
+          .listBegin()
+          .word("success")
+          .listBegin().listEnd()
           .listEnd();
-      ReplayCmd.replayRevision(context, revision, true);
+    } finally {
+      writer.uncork();
     }
-    writer
-        .listBegin()
-        .word("success")
-        .listBegin().listEnd()
-        .listEnd();
   }
 
 }
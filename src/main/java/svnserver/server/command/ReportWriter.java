@@ -0,0 +1,205 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.command;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import svnserver.parser.SvnServerWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Editor drive output with file delta computation running ahead of the drive.
+ * <p>
+ * Editor commands are serialized to memory in drive order. File deltas are computed by worker pool
+ * and all data is sent to client in original order. Without worker pool all data is written directly.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public final class ReportWriter {
+  private static final int RECORD_BUFFER_SIZE = 1024;
+  private static final int RECORD_FLUSH_SIZE = 64 * 1024;
+
+  @FunctionalInterface
+  public interface DeltaWriter {
+    void write(@NotNull SvnServerWriter writer) throws IOException, SVNException;
+  }
+
+  private static final class Pending {
+    @Nullable
+    private final byte[] data;
+    @Nullable
+    private final Future<byte[]> delta;
+    private final long size;
+
+    private Pending(@Nullable byte[] data, @Nullable Future<byte[]> delta, long size) {
+      this.data = data;
+      this.delta = delta;
+      this.size = size;
+    }
+  }
+
+  @NotNull
+  private final SvnServerWriter target;
+  @Nullable
+  private final ExecutorService executor;
+  private final int readahead;
+  private final long memoryLimit;
+  @NotNull
+  private final ByteArrayOutputStream recorded = new ByteArrayOutputStream();
+  @NotNull
+  private final SvnServerWriter recorder = new SvnServerWriter(recorded, RECORD_BUFFER_SIZE);
+  @NotNull
+  private final Deque<Pending> queue = new ArrayDeque<>();
+  private int pendingDeltas = 0;
+  private long pendingMemory = 0;
+
+  /**
+   * Create report writer.
+   *
+   * @param target      Client writer.
+   * @param executor    Delta computation pool (null - compute deltas in drive thread).
+   * @param readahead   Maximum count of files with pending deltas.
+   * @param memoryLimit Maximum estimated size of pending deltas in bytes.
+   */
+  public ReportWriter(@NotNull SvnServerWriter target, @Nullable ExecutorService executor, int readahead, long memoryLimit) {
+    this.target = target;
+    this.executor = readahead > 0 ? executor : null;
+    this.readahead = readahead;
+    this.memoryLimit = memoryLimit;
+  }
+
+  /**
+   * Writer for editor commands.
+   */
+  @NotNull
+  public SvnServerWriter getWriter() throws IOException {
+    if (executor == null) {
+      return target;
+    }
+    if (queue.isEmpty() && recorded.size() >= RECORD_FLUSH_SIZE) {
+      // Nothing to wait for: don't hold editor commands in memory.
+      recorder.flush();
+      target.raw(recorded.toByteArray(), 0, recorded.size());
+      recorded.reset();
+    }
+    return recorder;
+  }
+
+  /**
+   * Write file delta.
+   *
+   * @param estimatedSize Estimated delta size.
+   * @param delta         Delta writer. Can be executed in other thread.
+   */
+  public void delta(long estimatedSize, @NotNull DeltaWriter delta) throws IOException, SVNException {
+    if (executor == null) {
+      delta.write(target);
+      return;
+    }
+    if (estimatedSize > memoryLimit) {
+      // Too large for memory: stream it directly.
+      drain(0, 0);
+      delta.write(target);
+      return;
+    }
+    drain(readahead - 1, memoryLimit - estimatedSize);
+    enqueueRecorded();
+    queue.add(new Pending(null, executor.submit(() -> {
+      final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+      final SvnServerWriter writer = new SvnServerWriter(stream, RECORD_BUFFER_SIZE);
+      delta.write(writer);
+      writer.flush();
+      return stream.toByteArray();
+    }), estimatedSize));
+    pendingDeltas++;
+    pendingMemory += estimatedSize;
+  }
+
+  /**
+   * Send all pending data to client.
+   */
+  public void finish() throws IOException, SVNException {
+    if (executor != null) {
+      drain(0, 0);
+    }
+  }
+
+  /**
+   * Drop pending data.
+   */
+  public void cancel() {
+    for (Pending pending : queue) {
+      if (pending.delta != null) {
+        pending.delta.cancel(true);
+      }
+    }
+    queue.clear();
+    recorded.reset();
+    pendingDeltas = 0;
+    pendingMemory = 0;
+  }
+
+  private void enqueueRecorded() throws IOException {
+    recorder.flush();
+    if (recorded.size() > 0) {
+      queue.add(new Pending(recorded.toByteArray(), null, 0));
+      recorded.reset();
+    }
+  }
+
+  private void drain(int maxDeltas, long maxMemory) throws IOException, SVNException {
+    if (maxDeltas <= 0 || maxMemory <= 0) {
+      enqueueRecorded();
+    }
+    while (!queue.isEmpty() && (pendingDeltas > maxDeltas || pendingMemory > maxMemory || maxDeltas <= 0)) {
+      final Pending pending = queue.remove();
+      if (pending.delta != null) {
+        pendingDeltas--;
+        pendingMemory -= pending.size;
+        final byte[] data = getDelta(pending.delta);
+        target.raw(data, 0, data.length);
+      } else if (pending.data != null) {
+        target.raw(pending.data, 0, pending.data.length);
+      }
+    }
+  }
+
+  @NotNull
+  private static byte[] getDelta(@NotNull Future<byte[]> delta) throws IOException, SVNException {
+    try {
+      return delta.get();
+    } catch (InterruptedException e) {
+      throw new InterruptedIOException();
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof SVNException) {
+        throw (SVNException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new SVNException(SVNErrorMessage.UNKNOWN_ERROR_MESSAGE, cause);
+    }
+  }
+}
@@ -31,12 +31,15 @@ import svnserver.context.LocalContext;
 import svnserver.context.SharedContext;
 import svnserver.ext.gitlfs.storage.LfsStorageFactory;
 import svnserver.ext.gitlfs.storage.memory.LfsMemoryStorage;
+import svnserver.repository.RepositoryInfo;
+import svnserver.repository.RepositoryWarmer;
 import svnserver.repository.VcsAccess;
 import svnserver.repository.VcsRepositoryMapping;
 import svnserver.repository.git.GitRepository;
 import svnserver.repository.git.push.GitPushEmbedded;
 import svnserver.repository.locks.PersistentLockFactory;
 import svnserver.repository.mapping.RepositoryListMapping;
+import svnserver.server.ConnectionEngine;
 import svnserver.server.SvnServer;
 import svnserver.tester.SvnTester;
 
@@ -66,6 +69,7 @@ public final class SvnTestServer implements SvnTester {
   public static final String PASSWORD = "passw0rd";
   @NotNull
   private static final String TEST_BRANCH_PREFIX = "test_";
+  private static final long WARMUP_TIMEOUT = 60 * 1000;
 
   @NotNull
   private final String BIND_HOST = "127.0.0.2";
@@ -85,6 +89,10 @@ public final class SvnTestServer implements SvnTester {
   private final boolean safeBranch;
 
   private SvnTestServer(@NotNull Repository repository, @Nullable String branch, @NotNull String prefix, boolean safeBranch, @Nullable UserDBConfig userDBConfig, boolean anonymousRead) throws Exception {
+    this(repository, branch, prefix, safeBranch, userDBConfig, anonymousRead, ConnectionEngine.THREAD, 0);
+  }
+
+  private SvnTestServer(@NotNull Repository repository, @Nullable String branch, @NotNull String prefix, boolean safeBranch, @Nullable UserDBConfig userDBConfig, boolean anonymousRead, @NotNull ConnectionEngine connectionEngine, int maxConcurrentCommands) throws Exception {
     SVNFileUtil.setSleepForTimestamp(false);
     this.repository = repository;
     this.safeBranch = safeBranch;
@@ -105,6 +113,8 @@ public final class SvnTestServer implements SvnTester {
 
     final Config config = new Config(BIND_HOST, 0);
     config.setCompressionEnabled(false);
+    config.setConnectionEngine(connectionEngine);
+    config.setMaxConcurrentCommands(maxConcurrentCommands);
     config.setCacheConfig(new MemoryCacheConfig());
     config.setRepositoryMapping(new TestRepositoryConfig(repository, testBranch, prefix, anonymousRead));
     if (userDBConfig != null) {
@@ -118,10 +128,19 @@ public final class SvnTestServer implements SvnTester {
     config.getShared().add(context -> context.add(LfsStorageFactory.class, new LfsMemoryStorage.Factory()));
     server = new SvnServer(tempDirectory, config);
     server.start();
+    awaitWarmup();
     log.info("Temporary server started (url: {}, path: {}, branch: {} as {})", getUrl(), repository.getDirectory(), srcBranch, testBranch);
     log.info("Temporary directory: {}", tempDirectory);
   }
 
+  private void awaitWarmup() throws Exception {
+    // Selector engine doesn't wait for repository initialization on connect.
+    final RepositoryInfo repositoryInfo = server.getContext().sure(VcsRepositoryMapping.class).getRepository(getUrl());
+    if (repositoryInfo == null || !server.getContext().sure(RepositoryWarmer.class).await(repositoryInfo.getRepository(), WARMUP_TIMEOUT)) {
+      throw new IllegalStateException("Repository is not initialized: " + getUrl());
+    }
+  }
+
   private void cleanupBranches(Repository repository) {
     final List<String> branches = new ArrayList<>();
     for (String ref : repository.getAllRefs().keySet()) {
@@ -157,6 +176,12 @@ public final class SvnTestServer implements SvnTester {
     return new SvnTestServer(TestHelper.emptyRepository(), branch, "", false, userDBConfig, anonymousRead);
   }
 
+  @NotNull
+  public static SvnTestServer createEmpty(@NotNull ConnectionEngine connectionEngine, int maxConcurrentCommands) throws Exception {
+    final String branch = "master";
+    return new SvnTestServer(TestHelper.emptyRepository(), branch, "", false, null, true, connectionEngine, maxConcurrentCommands);
+  }
+
   @NotNull
   public static SvnTestServer createMasterRepository() throws Exception {
     return new SvnTestServer(new FileRepository(TestHelper.findGitPath()), null, "/master", true, null, true);
@@ -267,6 +292,8 @@ public final class SvnTestServer implements SvnTester {
           new GitPushEmbedded(local, "", "", ""),
           branch,
           true,
+          0,
+          0,
           new PersistentLockFactory(local)
       ));
     }
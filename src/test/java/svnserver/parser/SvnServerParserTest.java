@@ -10,6 +10,7 @@ package svnserver.parser;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 import org.testng.internal.junit.ArrayAsserts;
+import org.tmatesoft.svn.core.SVNException;
 import svnserver.parser.token.*;
 import svnserver.server.msg.ClientInfo;
 
@@ -142,4 +143,36 @@ public class SvnServerParserTest {
       Assert.assertEquals(parser.readToken(), new WordToken("end"));
     }
   }
+
+  @Test
+  public void testReadBinarySmallBuffer() throws IOException, SVNException {
+    try (InputStream stream = new ByteArrayInputStream("( 23:large string chunk data 0: ) test ".getBytes(StandardCharsets.UTF_8))) {
+      final SvnServerParser parser = new SvnServerParser(stream, 10);
+      final ByteArrayOutputStream data = new ByteArrayOutputStream();
+      parser.readToken(ListBeginToken.class);
+      Assert.assertTrue(parser.readBinary(data::write));
+      Assert.assertEquals(new String(data.toByteArray(), StandardCharsets.UTF_8), "large string chunk data");
+      data.reset();
+      Assert.assertTrue(parser.readBinary(data::write));
+      Assert.assertEquals(data.size(), 0);
+      Assert.assertFalse(parser.readBinary(data::write));
+      Assert.assertEquals(parser.readText(), "test");
+    }
+  }
+
+  @Test
+  public void testCorkedWriter() throws IOException {
+    try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+      final SvnServerWriter writer = new SvnServerWriter(outputStream);
+      writer.listBegin().word("first").listEnd();
+      final int flushed = outputStream.size();
+      Assert.assertTrue(flushed > 0);
+      writer.cork();
+      writer.listBegin().word("second").listEnd();
+      writer.listBegin().word("third").listEnd();
+      Assert.assertEquals(outputStream.size(), flushed);
+      writer.uncork();
+      Assert.assertEquals(new String(outputStream.toByteArray(), StandardCharsets.UTF_8), "( first ) \n( second ) \n( third ) \n");
+    }
+  }
 }
@@ -0,0 +1,78 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.Repository;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import svnserver.TestHelper;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Blob output stream test.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class GitBlobOutputStreamTest {
+  @DataProvider
+  public static Object[][] sizeProvider() {
+    return new Object[][]{
+        new Object[]{0},
+        new Object[]{1},
+        new Object[]{100 * 1024},
+        new Object[]{256 * 1024},
+        new Object[]{256 * 1024 + 1},
+        new Object[]{1024 * 1024},
+    };
+  }
+
+  @Test(dataProvider = "sizeProvider")
+  public void testInsert(int size) throws IOException {
+    final byte[] data = new byte[size];
+    new Random(size).nextBytes(data);
+
+    final Repository repo = TestHelper.emptyRepository();
+    final GitBlobOutputStream stream = new GitBlobOutputStream();
+    int offset = 0;
+    while (offset < data.length) {
+      // Mix single byte and block writes.
+      stream.write(data[offset++]);
+      final int length = Math.min(data.length - offset, 1000);
+      stream.write(data, offset, length);
+      offset += length;
+    }
+    stream.close();
+
+    final ObjectId objectId;
+    try (ObjectInserter inserter = repo.newObjectInserter()) {
+      objectId = stream.insert(inserter);
+      inserter.flush();
+    }
+    Assert.assertEquals(objectId, new ObjectInserter.Formatter().idFor(Constants.OBJ_BLOB, data));
+    Assert.assertEquals(repo.open(objectId, Constants.OBJ_BLOB).getBytes(), data);
+  }
+
+  @Test(dataProvider = "sizeProvider")
+  public void testRelease(int size) throws IOException {
+    final byte[] data = new byte[size];
+    new Random(size).nextBytes(data);
+
+    final GitBlobOutputStream stream = new GitBlobOutputStream();
+    stream.write(data);
+    stream.close();
+    stream.release();
+    // Release is called again by error handling after insert.
+    stream.release();
+  }
+}
@@ -0,0 +1,83 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Path history index test.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class GitPathHistoryTest {
+  @Test
+  public void testLastChange() {
+    final GitPathHistory history = new GitPathHistory();
+    history.add("/foo", 1, false);
+    history.add("/foo/bar", 1, false);
+    history.add("/foo/bar", 3, false);
+    history.add("/foo/bar", 5, true);
+    history.add("/foo/bar", 7, false);
+
+    Assert.assertEquals(history.getLastChange("/foo/bar", 0), GitPathHistory.NO_REVISION);
+    Assert.assertEquals(history.getLastChange("/foo/bar", 1), 1);
+    Assert.assertEquals(history.getLastChange("/foo/bar", 2), 1);
+    Assert.assertEquals(history.getLastChange("/foo/bar", 4), 3);
+    Assert.assertEquals(history.getLastChange("/foo/bar", 5), GitPathHistory.NO_REVISION);
+    Assert.assertEquals(history.getLastChange("/foo/bar", 6), GitPathHistory.NO_REVISION);
+    Assert.assertEquals(history.getLastChange("/foo/bar", 7), 7);
+    Assert.assertEquals(history.getLastChange("/foo/bar", 100), 7);
+    Assert.assertEquals(history.getLastChange("/foo", 100), 1);
+    Assert.assertEquals(history.getLastChange("/foo/baz", 100), GitPathHistory.NO_REVISION);
+    Assert.assertEquals(history.getLastChange("/fo", 100), GitPathHistory.NO_REVISION);
+  }
+
+  @Test
+  public void testFirstAndNextChange() {
+    final GitPathHistory history = new GitPathHistory();
+    history.add("/foo/bar", 1, false);
+    history.add("/foo/bar", 3, false);
+    history.add("/foo/bar", 5, true);
+    history.add("/foo/bar", 7, false);
+
+    Assert.assertEquals(history.getFirstChange("/foo/bar", 0), GitPathHistory.NO_REVISION);
+    Assert.assertEquals(history.getFirstChange("/foo/bar", 1), 1);
+    Assert.assertEquals(history.getFirstChange("/foo/bar", 4), 1);
+    Assert.assertEquals(history.getFirstChange("/foo/bar", 5), GitPathHistory.NO_REVISION);
+    Assert.assertEquals(history.getFirstChange("/foo/bar", 7), 7);
+    Assert.assertEquals(history.getFirstChange("/foo/bar", 100), 7);
+    Assert.assertEquals(history.getFirstChange("/foo/baz", 100), GitPathHistory.NO_REVISION);
+
+    Assert.assertEquals(history.getNextChange("/foo/bar", -1), 1);
+    Assert.assertEquals(history.getNextChange("/foo/bar", 1), 3);
+    Assert.assertEquals(history.getNextChange("/foo/bar", 3), 5);
+    Assert.assertEquals(history.getNextChange("/foo/bar", 6), 7);
+    Assert.assertEquals(history.getNextChange("/foo/bar", 7), GitPathHistory.NO_REVISION);
+    Assert.assertEquals(history.getNextChange("/foo/baz", 0), GitPathHistory.NO_REVISION);
+  }
+
+  @Test
+  public void testLongHistory() {
+    final GitPathHistory history = new GitPathHistory();
+    final int count = 10000;
+    for (int i = 0; i < count; ++i) {
+      // Changed in every third revision, removed in every 10th change.
+      history.add("/file", i * 3, i % 10 == 9);
+    }
+    for (int revision = 0; revision < count * 3; ++revision) {
+      final int change = revision / 3;
+      final int expected = change % 10 == 9 ? GitPathHistory.NO_REVISION : change * 3;
+      Assert.assertEquals(history.getLastChange("/file", revision), expected, "revision " + revision);
+      final int first = change % 10 == 9 ? GitPathHistory.NO_REVISION : (change - change % 10) * 3;
+      Assert.assertEquals(history.getFirstChange("/file", revision), first, "revision " + revision);
+      final int next = change + 1 < count ? (change + 1) * 3 : GitPathHistory.NO_REVISION;
+      Assert.assertEquals(history.getNextChange("/file", revision), next, "revision " + revision);
+    }
+  }
+}
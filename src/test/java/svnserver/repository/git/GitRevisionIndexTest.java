@@ -0,0 +1,116 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.HashHelper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+/**
+ * Revision index test.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class GitRevisionIndexTest {
+  @Test
+  public void testFindByCommit() {
+    final GitRevisionIndex index = new GitRevisionIndex();
+    final int count = 5000;
+    index.add(objectId("cache", 0), null, 0, Collections.emptyMap());
+    for (int i = 1; i < count; ++i) {
+      Assert.assertEquals(index.add(objectId("cache", i), objectId("git", i), i * 1000L, Collections.emptyMap()), i);
+    }
+    Assert.assertEquals(index.size(), count);
+    Assert.assertNull(index.getGitCommit(0));
+    for (int i = 1; i < count; ++i) {
+      Assert.assertEquals(index.findByCommit(objectId("git", i)), i);
+      Assert.assertEquals(index.getGitCommit(i), objectId("git", i));
+      Assert.assertEquals(index.getCacheCommit(i), objectId("cache", i));
+    }
+    Assert.assertEquals(index.findByCommit(objectId("git", count)), -1);
+    Assert.assertEquals(index.findByCommit(objectId("cache", 1)), -1);
+  }
+
+  @Test
+  public void testFindByCommitAfterRehash() {
+    final GitRevisionIndex index = new GitRevisionIndex();
+    // Hash table is rehashed several times.
+    final int count = 10000;
+    for (int i = 0; i < count; ++i) {
+      index.add(objectId("cache", i), objectId("git", i), i * 1000L, Collections.emptyMap());
+      Assert.assertEquals(index.findByCommit(objectId("git", i)), i);
+    }
+    for (int i = 0; i < count; ++i) {
+      Assert.assertEquals(index.findByCommit(objectId("git", i)), i);
+    }
+    Assert.assertEquals(index.findByCommit(objectId("git", count)), -1);
+  }
+
+  @Test
+  public void testDuplicateCommit() {
+    final GitRevisionIndex index = new GitRevisionIndex();
+    index.add(objectId("cache", 0), objectId("git", 0), 0, Collections.emptyMap());
+    index.add(objectId("cache", 1), objectId("git", 1), 1000, Collections.emptyMap());
+    final GitRevisionIndex snapshot = index.snapshot();
+    index.add(objectId("cache", 2), objectId("git", 0), 2000, Collections.emptyMap());
+    // Last revision wins, but snapshot still sees its own revision.
+    Assert.assertEquals(index.findByCommit(objectId("git", 0)), 2);
+    Assert.assertEquals(snapshot.findByCommit(objectId("git", 0)), 0);
+    Assert.assertEquals(index.findByCommit(objectId("git", 1)), 1);
+  }
+
+  @Test
+  public void testFindByDate() {
+    final GitRevisionIndex index = new GitRevisionIndex();
+    final long[] dates = {0, 1000, 2000, 1500, 2000, 3000};
+    for (int i = 0; i < dates.length; ++i) {
+      index.add(objectId("cache", i), objectId("git", i), dates[i], Collections.emptyMap());
+    }
+    Assert.assertEquals(index.findByDate(500), 0);
+    Assert.assertEquals(index.findByDate(1000), 1);
+    Assert.assertEquals(index.findByDate(1999), 1);
+    Assert.assertEquals(index.findByDate(2000), 4);
+    Assert.assertEquals(index.findByDate(2999), 4);
+    Assert.assertEquals(index.findByDate(5000), 5);
+  }
+
+  @Test
+  public void testSnapshot() {
+    final GitRevisionIndex index = new GitRevisionIndex();
+    final int count = 3000;
+    for (int i = 0; i < count; ++i) {
+      index.add(objectId("cache", i), objectId("git", i), i * 1000L, Collections.emptyMap());
+    }
+    final GitRevisionIndex snapshot = index.snapshot();
+    // Grow index after snapshot (arrays and hash table are reallocated).
+    for (int i = count; i < count * 2; ++i) {
+      index.add(objectId("cache", i), objectId("git", i), i * 1000L, Collections.emptyMap());
+    }
+    Assert.assertEquals(snapshot.size(), count);
+    Assert.assertEquals(index.size(), count * 2);
+    for (int i = 0; i < count * 2; ++i) {
+      Assert.assertEquals(snapshot.findByCommit(objectId("git", i)), i < count ? i : -1);
+      Assert.assertEquals(index.findByCommit(objectId("git", i)), i);
+    }
+    Assert.assertEquals(snapshot.findByDate(count * 10000L), count - 1);
+    Assert.assertEquals(index.findByDate(count * 10000L), count * 2 - 1);
+  }
+
+  @Test(expectedExceptions = IllegalStateException.class)
+  public void testSnapshotReadOnly() {
+    new GitRevisionIndex().snapshot().add(objectId("cache", 0), null, 0, Collections.emptyMap());
+  }
+
+  private static ObjectId objectId(String prefix, int id) {
+    return ObjectId.fromRaw(HashHelper.sha256().digest((prefix + id).getBytes(StandardCharsets.UTF_8)));
+  }
+}
@@ -0,0 +1,114 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.HashHelper;
+import svnserver.TestHelper;
+import svnserver.repository.git.cache.CacheChange;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Revision journal test.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class GitRevisionJournalTest {
+  @Test
+  public void testReload() throws IOException {
+    final File tempDir = TestHelper.createTempDir("git-as-svn");
+    try {
+      final File file = new File(tempDir, "journal/test.journal");
+      try (GitRevisionJournal journal = new GitRevisionJournal(file)) {
+        final Map<String, CacheChange> changes = new HashMap<>();
+        changes.put("/foo", new CacheChange(null, objectId("foo")));
+        journal.append(objectId("cache0"), null, 0, Collections.emptyMap(), Collections.emptyMap());
+        journal.append(objectId("cache1"), objectId("git1"), 1000, Collections.singletonMap("/foo", "/bar"), changes);
+        changes.put("/foo", new CacheChange(objectId("foo"), null));
+        journal.append(objectId("cache2"), objectId("git2"), 2000, Collections.emptyMap(), changes);
+        journal.flush();
+      }
+      // Simulate incomplete write.
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+        raf.seek(raf.length());
+        raf.writeInt(100);
+        raf.write(new byte[10]);
+      }
+
+      final GitRevisionIndex revisions = new GitRevisionIndex();
+      final GitPathHistory history = new GitPathHistory();
+      try (GitRevisionJournal journal = new GitRevisionJournal(file)) {
+        Assert.assertEquals(journal.load(revisions, history), 3);
+      }
+      Assert.assertEquals(revisions.getCacheCommit(2), objectId("cache2"));
+      Assert.assertNull(revisions.getGitCommit(0));
+      Assert.assertEquals(revisions.findByCommit(objectId("git1")), 1);
+      Assert.assertEquals(revisions.getDate(1), 1000);
+      Assert.assertEquals(revisions.getRenames(1), Collections.singletonMap("/foo", "/bar"));
+      Assert.assertEquals(history.getLastChange("/foo", 1), 1);
+      Assert.assertEquals(history.getLastChange("/foo", 2), GitPathHistory.NO_REVISION);
+
+      // Tail is truncated, new records are appended after last complete record.
+      try (GitRevisionJournal journal = new GitRevisionJournal(file)) {
+        journal.append(objectId("cache3"), objectId("git3"), 3000, Collections.emptyMap(), Collections.emptyMap());
+      }
+      try (GitRevisionJournal journal = new GitRevisionJournal(file)) {
+        final GitRevisionIndex reloaded = new GitRevisionIndex();
+        Assert.assertEquals(journal.load(reloaded, new GitPathHistory()), 4);
+        Assert.assertEquals(reloaded.getCacheCommit(3), objectId("cache3"));
+      }
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  @Test
+  public void testDamagedRecord() throws IOException {
+    final File tempDir = TestHelper.createTempDir("git-as-svn");
+    try {
+      final File file = new File(tempDir, "journal/test.journal");
+      try (GitRevisionJournal journal = new GitRevisionJournal(file)) {
+        journal.append(objectId("cache0"), null, 0, Collections.emptyMap(), Collections.emptyMap());
+        journal.append(objectId("cache1"), objectId("git1"), 1000, Collections.singletonMap("/foo", "/bar"), Collections.emptyMap());
+        journal.flush();
+      }
+      // Damage last record body without changing its length.
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+        raf.seek(raf.length() - 1);
+        final int last = raf.read();
+        raf.seek(raf.length() - 1);
+        raf.write(last ^ 0xFF);
+      }
+
+      try (GitRevisionJournal journal = new GitRevisionJournal(file)) {
+        final GitRevisionIndex revisions = new GitRevisionIndex();
+        Assert.assertEquals(journal.load(revisions, new GitPathHistory()), 1);
+        Assert.assertEquals(revisions.getCacheCommit(0), objectId("cache0"));
+        journal.append(objectId("cache1"), objectId("git1"), 1000, Collections.emptyMap(), Collections.emptyMap());
+      }
+      try (GitRevisionJournal journal = new GitRevisionJournal(file)) {
+        Assert.assertEquals(journal.load(new GitRevisionIndex(), new GitPathHistory()), 2);
+      }
+    } finally {
+      TestHelper.deleteDirectory(tempDir);
+    }
+  }
+
+  private static ObjectId objectId(String value) {
+    return ObjectId.fromRaw(HashHelper.sha256().digest(value.getBytes(StandardCharsets.UTF_8)));
+  }
+}
@@ -0,0 +1,55 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git;
+
+import org.eclipse.jgit.lib.*;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.TestHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Parsed tree cache test.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class GitTreeCacheTest {
+  @Test
+  public void testLoad() throws IOException {
+    final Repository repo = TestHelper.emptyRepository();
+    final ObjectId blobId;
+    final ObjectId subtreeId;
+    final ObjectId treeId;
+    try (ObjectInserter inserter = repo.newObjectInserter()) {
+      blobId = inserter.insert(Constants.OBJ_BLOB, "content".getBytes(StandardCharsets.UTF_8));
+      final TreeFormatter subtree = new TreeFormatter();
+      subtree.append("file.txt", FileMode.REGULAR_FILE, blobId);
+      subtreeId = inserter.insert(subtree);
+      final TreeFormatter tree = new TreeFormatter();
+      tree.append("dir", FileMode.TREE, subtreeId);
+      tree.append("link", FileMode.SYMLINK, blobId);
+      treeId = inserter.insert(tree);
+      inserter.flush();
+    }
+
+    final GitTreeCache cache = new GitTreeCache(GitTreeCache.DEFAULT_MEMORY);
+    final GitReaderPool readers = new GitReaderPool(1);
+    final List<GitTreeEntry> entries = cache.load(readers, repo, treeId);
+    Assert.assertEquals(entries.size(), 2);
+    Assert.assertEquals(entries.get(0), new GitTreeEntry(repo, FileMode.TREE, subtreeId, "dir"));
+    Assert.assertEquals(entries.get(1), new GitTreeEntry(repo, FileMode.SYMLINK, blobId, "link"));
+    Assert.assertSame(entries.get(0).getFileMode(), FileMode.TREE);
+
+    Assert.assertEquals(cache.load(readers, repo, treeId), entries);
+    Assert.assertEquals(cache.getStats().missCount(), 1);
+    Assert.assertEquals(cache.getStats().hitCount(), 1);
+  }
+}
@@ -0,0 +1,35 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.repository.git.filter;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import svnserver.HashHelper;
+import svnserver.StringHelper;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Blob metadata serialization test.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class BlobMetadataTest {
+  @Test
+  public void testSerialization() {
+    final byte[] md5 = HashHelper.md5().digest("test".getBytes(StandardCharsets.UTF_8));
+    for (long size : new long[]{0, 1, 0xFFL, 0x1234567890L, Long.MAX_VALUE}) {
+      for (boolean binary : new boolean[]{false, true}) {
+        final BlobMetadata metadata = BlobMetadata.fromBytes(new BlobMetadata(md5, size, binary).toBytes());
+        Assert.assertEquals(metadata.getMd5(), StringHelper.toHex(md5));
+        Assert.assertEquals(metadata.getSize(), size);
+        Assert.assertEquals(metadata.isBinary(), binary);
+      }
+    }
+  }
+}
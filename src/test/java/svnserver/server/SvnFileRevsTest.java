@@ -0,0 +1,138 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.io.ISVNEditor;
+import org.tmatesoft.svn.core.io.ISVNFileRevisionHandler;
+import org.tmatesoft.svn.core.io.SVNFileRevision;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.io.diff.SVNDeltaProcessor;
+import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
+import svnserver.SvnTestServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static svnserver.SvnTestHelper.createFile;
+import static svnserver.SvnTestHelper.modifyFile;
+
+/**
+ * Check file revisions (blame) command.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class SvnFileRevsTest {
+  @Test
+  public void fileRevsSimple() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty()) {
+      final SVNRepository repo = server.openSvnRepository();
+      initRepo(repo);
+
+      final long last = repo.getLatestRevision();
+      checkFileRevs(repo, "/bar.txt", 0, last,
+          "/foo.txt@1:a\n",
+          "/foo.txt@2:a\nb\n",
+          "/bar.txt@3:a\nb\n",
+          "/bar.txt@4:a\nc\n"
+      );
+      checkFileRevs(repo, "/bar.txt", 3, last,
+          "/bar.txt@3:a\nb\n",
+          "/bar.txt@4:a\nc\n"
+      );
+      checkFileRevs(repo, "/foo.txt", 0, 2,
+          "/foo.txt@1:a\n",
+          "/foo.txt@2:a\nb\n"
+      );
+    }
+  }
+
+  @Test
+  public void fileRevsNotFound() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty()) {
+      final SVNRepository repo = server.openSvnRepository();
+      initRepo(repo);
+
+      try {
+        checkFileRevs(repo, "/foo.txt", 0, repo.getLatestRevision());
+        Assert.fail();
+      } catch (SVNException e) {
+        Assert.assertEquals(e.getErrorMessage().getErrorCode(), SVNErrorCode.FS_NOT_FOUND);
+      }
+    }
+  }
+
+  private void initRepo(@NotNull SVNRepository repo) throws SVNException, IOException {
+    // r1 - add single file.
+    createFile(repo, "/foo.txt", "a\n", null);
+    // r2 - modify file.
+    modifyFile(repo, "/foo.txt", "a\nb\n", repo.getLatestRevision());
+    // r3 - rename file.
+    {
+      final long revision = repo.getLatestRevision();
+      final ISVNEditor editor = repo.getCommitEditor("Rename: /foo.txt to /bar.txt", null, false, null);
+      editor.openRoot(-1);
+      editor.addFile("/bar.txt", "/foo.txt", revision);
+      editor.closeFile("/bar.txt", null);
+      editor.deleteEntry("/foo.txt", revision);
+      editor.closeDir();
+      editor.closeEdit();
+    }
+    // r4 - modify file.
+    modifyFile(repo, "/bar.txt", "a\nc\n", repo.getLatestRevision());
+  }
+
+  private void checkFileRevs(@NotNull SVNRepository repo, @NotNull String path, long startRev, long endRev, @NotNull String... expected) throws SVNException {
+    final List<String> actual = new ArrayList<>();
+    repo.getFileRevisions(path, startRev, endRev, new ISVNFileRevisionHandler() {
+      @NotNull
+      private final SVNDeltaProcessor processor = new SVNDeltaProcessor();
+      @NotNull
+      private byte[] content = new byte[0];
+      private ByteArrayOutputStream target;
+      private String revision;
+
+      @Override
+      public void openRevision(SVNFileRevision fileRevision) throws SVNException {
+        revision = fileRevision.getPath() + "@" + fileRevision.getRevision();
+      }
+
+      @Override
+      public void applyTextDelta(String path, String baseChecksum) throws SVNException {
+        target = new ByteArrayOutputStream();
+        processor.applyTextDelta(new ByteArrayInputStream(content), target, false);
+      }
+
+      @Override
+      public OutputStream textDeltaChunk(String path, SVNDiffWindow diffWindow) throws SVNException {
+        return processor.textDeltaChunk(diffWindow);
+      }
+
+      @Override
+      public void textDeltaEnd(String path) throws SVNException {
+        processor.textDeltaEnd();
+        content = target.toByteArray();
+      }
+
+      @Override
+      public void closeRevision(String token) throws SVNException {
+        actual.add(revision + ":" + new String(content, StandardCharsets.UTF_8));
+      }
+    });
+    Assert.assertEquals(actual.toArray(new String[actual.size()]), expected);
+  }
+}
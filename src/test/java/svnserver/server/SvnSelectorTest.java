@@ -0,0 +1,75 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import svnserver.SvnTestServer;
+
+import java.io.InputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import static svnserver.SvnTestHelper.*;
+
+/**
+ * Check selector connection engine.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class SvnSelectorTest {
+  private static final int IDLE_CLIENTS = 4;
+
+  /**
+   * Check simple commit and read with parked sessions.
+   */
+  @Test(timeOut = 60 * 1000)
+  public void simple() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty(ConnectionEngine.SELECTOR, 2)) {
+      final SVNRepository repo = server.openSvnRepository();
+      createFile(repo, "/foo.txt", "Foo content", null);
+      modifyFile(repo, "/foo.txt", "Bar content", repo.getLatestRevision());
+      Assert.assertEquals(repo.getLatestRevision(), 2);
+      checkFileContent(server.openSvnRepository(), "/foo.txt", "Bar content");
+      checkFileContent(repo, "/foo.txt", "Bar content");
+    }
+  }
+
+  /**
+   * Idle clients before handshake and authentication should not hold command threads.
+   */
+  @Test(timeOut = 60 * 1000)
+  public void idleHandshake() throws Exception {
+    try (SvnTestServer server = SvnTestServer.createEmpty(ConnectionEngine.SELECTOR, 1)) {
+      final SVNURL url = server.getUrl();
+      final List<Socket> idle = new ArrayList<>();
+      try {
+        for (int i = 0; i < IDLE_CLIENTS; ++i) {
+          final Socket socket = new Socket(url.getHost(), url.getPort());
+          idle.add(socket);
+          if (i % 2 == 0) {
+            // Read server greeting, but don't answer it.
+            final InputStream stream = socket.getInputStream();
+            Assert.assertTrue(stream.read() >= 0);
+          }
+        }
+        final SVNRepository repo = server.openSvnRepository();
+        createFile(repo, "/foo.txt", "Foo content", null);
+        Assert.assertEquals(repo.getLatestRevision(), 1);
+        checkFileContent(repo, "/foo.txt", "Foo content");
+      } finally {
+        for (Socket socket : idle) {
+          socket.close();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/**
+ * This file is part of git-as-svn. It is subject to the license terms
+ * in the LICENSE file found in the top-level directory of this distribution
+ * and at http://www.gnu.org/licenses/gpl-2.0.html. No part of git-as-svn,
+ * including this file, may be copied, modified, propagated, or distributed
+ * except according to the terms contained in the LICENSE file.
+ */
+package svnserver.server.command;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.internal.delta.SVNDeltaReader;
+import org.tmatesoft.svn.core.io.ISVNDeltaConsumer;
+import org.tmatesoft.svn.core.io.diff.SVNDeltaProcessor;
+import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Check svndiff generation for content without delta base.
+ *
+ * @author Artem V. Navrotskiy <bozaro@users.noreply.github.com>
+ */
+public class FullTextDeltaTest {
+  @DataProvider
+  public static Object[][] contentProvider() {
+    final StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 30000; ++i) {
+      text.append("Line ").append(i).append('\n');
+    }
+    final byte[] binary = new byte[150 * 1024];
+    new Random(0).nextBytes(binary);
+    final byte[][] contents = {
+        new byte[0],
+        "x".getBytes(StandardCharsets.UTF_8),
+        text.toString().getBytes(StandardCharsets.UTF_8),
+        binary,
+    };
+    final Object[][] result = new Object[contents.length * 2][];
+    for (int i = 0; i < contents.length; ++i) {
+      result[i * 2] = new Object[]{contents[i], false};
+      result[i * 2 + 1] = new Object[]{contents[i], true};
+    }
+    return result;
+  }
+
+  @Test(dataProvider = "contentProvider")
+  public void testRoundTrip(byte[] content, boolean compress) throws IOException, SVNException {
+    final ByteArrayOutputStream result = new ByteArrayOutputStream();
+    final SVNDeltaProcessor processor = new SVNDeltaProcessor();
+    processor.applyTextDelta(new ByteArrayInputStream(new byte[0]), result, true);
+    final SVNDeltaReader reader = new SVNDeltaReader();
+    final ISVNDeltaConsumer consumer = new ISVNDeltaConsumer() {
+      @Override
+      public void applyTextDelta(String path, String baseChecksum) throws SVNException {
+      }
+
+      @Override
+      public OutputStream textDeltaChunk(String path, SVNDiffWindow diffWindow) throws SVNException {
+        return processor.textDeltaChunk(diffWindow);
+      }
+
+      @Override
+      public void textDeltaEnd(String path) throws SVNException {
+      }
+    };
+    final String md5 = FullTextDelta.write(new ByteArrayInputStream(content), compress, (data, offset, length) -> reader.nextWindow(data, offset, length, "", consumer));
+    Assert.assertEquals(processor.textDeltaEnd(), md5);
+    Assert.assertEquals(result.toByteArray(), content);
+  }
+}